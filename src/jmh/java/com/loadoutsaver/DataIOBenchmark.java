@@ -0,0 +1,69 @@
+package com.loadoutsaver;
+
+import com.loadoutsaver.implementations.SyntheticLoadouts;
+import com.loadoutsaver.interfaces.ILoadout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * Parsing and serializing a whole library, as the stores do on load and save.
+ */
+@State(Scope.Benchmark)
+public class DataIOBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private List<ILoadout> library;
+    private List<ILoadout> parsed;
+    private String serialized;
+
+    @Setup
+    public void setUp() {
+        library = SyntheticLoadouts.Library(size, 42);
+        serialized = DataIO.FullSerialize(library);
+        parsed = DataIO.Parse(serialized);
+    }
+
+    @Benchmark
+    public List<ILoadout> parse() {
+        return DataIO.Parse(serialized);
+    }
+
+    /**
+     * Parsing followed by decoding every loadout, as rendering or indexing the whole library would.
+     */
+    @Benchmark
+    public void parseAndDecode(Blackhole blackhole) {
+        for (ILoadout loadout : DataIO.Parse(serialized)) {
+            blackhole.consume(loadout.GetInventory());
+        }
+    }
+
+    /**
+     * Parsing and fully decoding every record on a fork-join pool, as the stores do for large libraries.
+     */
+    @Benchmark
+    public ParseResult parseParallel() {
+        return DataIO.ParseAll(serialized, true);
+    }
+
+    @Benchmark
+    public String fullSerialize() {
+        return DataIO.FullSerialize(library);
+    }
+
+    /**
+     * Serializing loadouts that were parsed and never decoded, which reuses their records.
+     */
+    @Benchmark
+    public String fullSerializeParsed() {
+        return DataIO.FullSerialize(parsed);
+    }
+}
@@ -0,0 +1,106 @@
+package com.loadoutsaver;
+
+import com.loadoutsaver.implementations.SyntheticLoadouts;
+import com.loadoutsaver.interfaces.ILoadout;
+import com.loadoutsaver.interfaces.ILoadoutStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loadout manager mutations and queries against a library held in memory, with autosave off.
+ * Each mutating benchmark leaves the library the same size, so every invocation sees the same workload.
+ */
+@State(Scope.Benchmark)
+public class LoadoutManagerBenchmark {
+
+    /**
+     * Keeps the library in memory, so that the benchmarks measure the manager rather than the config store.
+     */
+    private static class MemoryStore implements ILoadoutStore {
+        private List<ILoadout> saved;
+
+        private MemoryStore(List<ILoadout> saved) {
+            this.saved = saved;
+        }
+
+        @Override
+        public List<ILoadout> Load() {
+            return new ArrayList<>(saved);
+        }
+
+        @Override
+        public void Save(List<ILoadout> loadouts) {
+            saved = new ArrayList<>(loadouts);
+        }
+    }
+
+    private static final LoadoutSaverConfig NO_AUTOSAVE = new LoadoutSaverConfig() {
+        @Override
+        public boolean autoSave() {
+            return false;
+        }
+    };
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private MemoryStore store;
+    private LoadoutManager manager;
+    private ILoadout extra;
+    private int probeItem;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<ILoadout> library = SyntheticLoadouts.Library(size + 1, 42);
+        extra = library.remove(size);
+        store = new MemoryStore(library);
+        manager = new LoadoutManager(NO_AUTOSAVE, store);
+        probeItem = library.get(0).GetInventory().GetItemID(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.flush();
+    }
+
+    @Benchmark
+    public boolean addAndRemove() {
+        boolean added = manager.AddLoadout(extra);
+        manager.RemoveLoadout(extra);
+        return added;
+    }
+
+    @Benchmark
+    public void moveFirstToLast() {
+        manager.MoveLoadout(manager.Snapshot().get(0), size - 1);
+    }
+
+    @Benchmark
+    public ILoadout rename() {
+        ILoadout first = manager.Snapshot().get(0);
+        return manager.RenameLoadout(first, first.GetName());
+    }
+
+    @Benchmark
+    public List<ILoadout> findWithItem() {
+        return manager.FindWithAnyOf(probeItem);
+    }
+
+    /**
+     * Loading the library into a fresh manager, including registering every loadout in the indexes
+     * and building the item index.
+     * The manager is never saved, so its save thread is never started.
+     */
+    @Benchmark
+    public LoadoutManager load() {
+        return new LoadoutManager(NO_AUTOSAVE, store);
+    }
+}
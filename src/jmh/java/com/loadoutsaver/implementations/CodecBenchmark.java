@@ -0,0 +1,51 @@
+package com.loadoutsaver.implementations;
+
+import com.loadoutsaver.interfaces.ILoadout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * Serializing and deserializing a whole library, one record at a time.
+ */
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private List<ILoadout> library;
+    private String[] records;
+
+    @Setup
+    public void setUp() {
+        library = SyntheticLoadouts.Library(size, 42);
+        records = library.stream().map(ILoadout::SerializeString).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public void serialize(Blackhole blackhole) {
+        for (ILoadout loadout : library) {
+            blackhole.consume(loadout.SerializeString());
+        }
+    }
+
+    @Benchmark
+    public void deserialize(Blackhole blackhole) {
+        for (String record : records) {
+            blackhole.consume(LoadoutImpl.Deserializer.DeserializeString(record));
+        }
+    }
+
+    @Benchmark
+    public void deserializeLazy(Blackhole blackhole) {
+        for (String record : records) {
+            blackhole.consume(LazyLoadoutImpl.Deserializer.DeserializeString(record));
+        }
+    }
+}
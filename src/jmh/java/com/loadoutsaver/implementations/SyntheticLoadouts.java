@@ -0,0 +1,69 @@
+package com.loadoutsaver.implementations;
+
+import com.loadoutsaver.interfaces.ILoadout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded libraries of realistic loadouts for benchmarks.
+ * Items are drawn from a shared pool, so libraries repeat items the way real ones do: mostly full inventories of
+ * single items, a few stacks (runes, ammunition), and most equipment slots filled.
+ */
+public class SyntheticLoadouts {
+
+    private static final int ITEM_POOL_SIZE = 600;
+
+    private SyntheticLoadouts() {}
+
+    /**
+     * @param size The number of loadouts in the library.
+     * @param seed The random seed, so that every run benchmarks the same library.
+     * @return A library of distinct loadouts, fully decoded.
+     */
+    public static List<ILoadout> Library(int size, long seed) {
+        Random random = new Random(seed);
+        int[] itemPool = new int[ITEM_POOL_SIZE];
+        for (int i = 0; i < itemPool.length; i++) {
+            itemPool[i] = 500 + random.nextInt(28000);
+        }
+
+        List<ILoadout> library = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            library.add(Loadout(random, itemPool, "Loadout " + i));
+        }
+        return library;
+    }
+
+    private static ILoadout Loadout(Random random, int[] itemPool, String name) {
+        int[] inventoryIDs = new int[InventoryImpl.SIZE];
+        int[] inventoryQuantities = new int[InventoryImpl.SIZE];
+        int filled = 20 + random.nextInt(InventoryImpl.SIZE - 19);
+        for (int i = 0; i < InventoryImpl.SIZE; i++) {
+            if (i < filled) {
+                inventoryIDs[i] = itemPool[random.nextInt(itemPool.length)];
+                inventoryQuantities[i] = random.nextInt(8) == 0 ? 1 + random.nextInt(20000) : 1;
+            }
+            else {
+                inventoryIDs[i] = -1;
+            }
+        }
+
+        int[] equipmentIDs = EquipmentImpl.EmptySlots();
+        int[] equipmentQuantities = new int[EquipmentImpl.SLOT_COUNT];
+        for (int i = 0; i < EquipmentImpl.SLOTS.length; i++) {
+            if (random.nextInt(5) != 0) {
+                int slot = EquipmentImpl.SLOTS[i].getSlotIdx();
+                equipmentIDs[slot] = itemPool[random.nextInt(itemPool.length)];
+                equipmentQuantities[slot] = 1;
+            }
+        }
+
+        return new LoadoutImpl(
+                name,
+                new InventoryImpl(inventoryIDs, inventoryQuantities),
+                new EquipmentImpl(equipmentIDs, equipmentQuantities)
+        );
+    }
+}
@@ -0,0 +1,218 @@
+package com.loadoutsaver;
+
+import com.loadoutsaver.interfaces.ILoadout;
+import com.loadoutsaver.interfaces.ILoadoutStore;
+import net.runelite.client.config.ConfigManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Stores each loadout under its own runelite configuration key, plus a small index key holding the
+ * comma-separated record ids in the user's order.
+ * Saving only writes records for loadouts that are new, unsets records for loadouts that were removed,
+ * and rewrites the index if the order changed.
+ * Records that can't be read are left in place and stay in the index, after the readable ones.
+ * The older format, with every loadout in the single savedloadouts key, is migrated on first load.
+ */
+public class ConfigLoadoutStore implements ILoadoutStore {
+
+    private final ConfigManager configManager;
+
+    // The record id each stored loadout was written under. Loadouts are immutable, so identity is enough.
+    private final Map<ILoadout, Long> recordIds = new IdentityHashMap<>();
+
+    private long nextId = 0;
+
+    private String storedIndex = null;
+
+    // Records the last load could not read.
+    private int unreadable = 0;
+
+    // The ids of the records the last load could not read. They stay at the end of the index, so that saving
+    // neither forgets nor orphans them.
+    private final List<Long> unreadableIds = new ArrayList<>();
+
+    public ConfigLoadoutStore(ConfigManager configManager) {
+        this.configManager = configManager;
+    }
+
+    @Override
+    public synchronized List<ILoadout> Load() {
+        String index = configManager.getConfiguration(
+                LoadoutSaverPlugin.CONFIG_GROUP_NAME,
+                LoadoutSaverPlugin.CONFIG_LOADOUT_INDEX_KEY
+        );
+        if (index == null) {
+            return Migrate();
+        }
+
+        recordIds.clear();
+        unreadableIds.clear();
+        storedIndex = index;
+        List<Long> ids = new ArrayList<>();
+        List<String> records = new ArrayList<>();
+        for (String rawId : index.split(",")) {
+            if (rawId.isBlank()) {
+                continue;
+            }
+            long id;
+            try {
+                id = Long.parseLong(rawId.strip());
+            }
+            catch (NumberFormatException nfe) {
+                System.err.println("Corrupted loadout index entry: " + rawId);
+                continue;
+            }
+            nextId = Math.max(nextId, id + 1);
+
+            String record = configManager.getConfiguration(LoadoutSaverPlugin.CONFIG_GROUP_NAME, RecordKey(id));
+            if (record == null) {
+                System.err.println("Missing loadout record: " + id);
+                unreadableIds.add(id);
+                continue;
+            }
+            ids.add(id);
+            records.add(record);
+        }
+
+        // Large libraries are fingerprinted up front, in parallel, rather than one loadout at a time on first use.
+        ParseResult parsed = DataIO.ParseRecords(records, records.size() >= DataIO.PARALLEL_THRESHOLD);
+        parsed.ReportFailures();
+        List<ILoadout> result = new ArrayList<>(records.size());
+        for (int i = 0; i < parsed.Size(); i++) {
+            ILoadout loadout = parsed.Get(i);
+            if (loadout != null) {
+                recordIds.put(loadout, ids.get(i));
+                result.add(loadout);
+            }
+            else {
+                unreadableIds.add(ids.get(i));
+            }
+        }
+        unreadable = unreadableIds.size();
+        return result;
+    }
+
+    @Override
+    public synchronized int GetUnreadableCount() {
+        return unreadable;
+    }
+
+    /**
+     * Counts the entries in the index, without reading any records.
+     */
+    @Override
+    public int EstimateCount() {
+        String index = configManager.getConfiguration(
+                LoadoutSaverPlugin.CONFIG_GROUP_NAME,
+                LoadoutSaverPlugin.CONFIG_LOADOUT_INDEX_KEY
+        );
+        if (index == null) {
+            return -1;
+        }
+        return index.isBlank() ? 0 : index.split(",").length;
+    }
+
+    /**
+     * Moves loadouts from the legacy single-key format into per-loadout records.
+     * If any legacy loadouts could not be read, the legacy key is left in place, so they aren't lost.
+     * @return The migrated loadouts.
+     */
+    private List<ILoadout> Migrate() {
+        String legacy = configManager.getConfiguration(
+                LoadoutSaverPlugin.CONFIG_GROUP_NAME,
+                LoadoutSaverPlugin.CONFIG_SAVED_LOADOUT_KEY
+        );
+        recordIds.clear();
+        unreadableIds.clear();
+        unreadable = 0;
+        List<ILoadout> result = new ArrayList<>();
+        if (legacy != null) {
+            ParseResult parsed = DataIO.ParseAll(legacy, false);
+            parsed.ReportFailures();
+            result = parsed.GetLoadouts();
+            unreadable = parsed.GetFailures().size();
+            System.out.println("Migrating " + result.size() + " loadouts to per-loadout storage.");
+        }
+
+        Save(result);
+        if (unreadable > 0) {
+            System.err.println("Keeping the legacy loadouts key, since " + unreadable + " loadouts in it could not be read.");
+        }
+        else if (legacy != null) {
+            configManager.unsetConfiguration(
+                    LoadoutSaverPlugin.CONFIG_GROUP_NAME,
+                    LoadoutSaverPlugin.CONFIG_SAVED_LOADOUT_KEY
+            );
+        }
+        return result;
+    }
+
+    /**
+     * New records are written first, then the index that refers to them, and only then are the records the index
+     * no longer uses removed. If a write fails part way, the stored index still points at intact records, and the
+     * next save reuses whatever records were already written.
+     */
+    @Override
+    public synchronized void Save(List<ILoadout> loadouts) {
+        Set<ILoadout> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Long> order = new ArrayList<>(loadouts.size());
+
+        for (ILoadout loadout : loadouts) {
+            Long id = recordIds.get(loadout);
+            if (id == null) {
+                id = nextId++;
+                long start = System.nanoTime();
+                String record = loadout.SerializeString();
+                Metrics.Timer(Metrics.SERIALIZE_RECORD).Since(start);
+                Write(RecordKey(id), record);
+                recordIds.put(loadout, id);
+            }
+            kept.add(loadout);
+            order.add(id);
+        }
+
+        order.addAll(unreadableIds);
+        String index = order.stream().map(String::valueOf).collect(Collectors.joining(","));
+        if (!Objects.equals(index, storedIndex)) {
+            Write(LoadoutSaverPlugin.CONFIG_LOADOUT_INDEX_KEY, index);
+            storedIndex = index;
+        }
+
+        Iterator<Map.Entry<ILoadout, Long>> stored = recordIds.entrySet().iterator();
+        while (stored.hasNext()) {
+            Map.Entry<ILoadout, Long> entry = stored.next();
+            if (!kept.contains(entry.getKey())) {
+                Write(RecordKey(entry.getValue()), null);
+                stored.remove();
+            }
+        }
+    }
+
+    /**
+     * Sets or, given null, unsets a key in the plugin's config group, timing the write.
+     */
+    private void Write(String key, String value) {
+        long start = System.nanoTime();
+        if (value == null) {
+            configManager.unsetConfiguration(LoadoutSaverPlugin.CONFIG_GROUP_NAME, key);
+        }
+        else {
+            configManager.setConfiguration(LoadoutSaverPlugin.CONFIG_GROUP_NAME, key, value);
+        }
+        Metrics.Timer(Metrics.CONFIG_WRITE).Since(start);
+        Metrics.Count(Metrics.CONFIG_WRITES);
+    }
+
+    private static String RecordKey(long id) {
+        return LoadoutSaverPlugin.CONFIG_LOADOUT_KEY_PREFIX + id;
+    }
+}
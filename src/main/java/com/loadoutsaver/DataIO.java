@@ -1,20 +1,26 @@
 package com.loadoutsaver;
 
-import com.loadoutsaver.implementations.LoadoutImpl;
+import com.loadoutsaver.implementations.LazyLoadoutImpl;
+import com.loadoutsaver.implementations.ShareCodes;
 import com.loadoutsaver.interfaces.ILoadout;
 import com.loadoutsaver.interfaces.ISerializable;
 
 import javax.inject.Inject;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Data serialization helper methods for the loadout saver.
@@ -27,32 +33,111 @@ public class DataIO {
 
     private DataIO() {}
 
+    /**
+     * Batches at least this large are decoded in parallel by the stores.
+     */
+    public static final int PARALLEL_THRESHOLD = 512;
+
     /**
      * Parses the given loadout collection string into an ordered list of loadouts.
+     * Only each record's header is parsed here; contents are decoded the first time they are accessed.
      * @param decoded The raw, unencoded string representing a list of newline-separated loadouts.
      * @return The list of parsed loadouts. Any loadouts that fail to parse will be discarded.
      */
     public static List<ILoadout> Parse(String decoded) {
-        String[] lines = decoded.split("\n");
-        List<ILoadout> result = Arrays.stream(lines).filter(
+        ParseResult result = ParseAll(decoded, false);
+        // TODO: Can we turn off autosave here, just in case?
+        result.ReportFailures();
+        return result.GetLoadouts();
+    }
+
+    /**
+     * Parses a newline-separated loadout collection string. Blank lines are skipped.
+     * See ParseRecords for the two modes.
+     */
+    public static ParseResult ParseAll(String decoded, boolean parallel) {
+        List<String> records = Arrays.stream(decoded.split("\n")).filter(
                 l -> !l.isBlank()
-        ).map(
-                raw -> {
+        ).collect(Collectors.toList());
+        return ParseRecords(records, parallel);
+    }
+
+    /**
+     * Parses independent loadout records, keeping their order. Each record is checked in full and fingerprinted,
+     * without building its contents (see LazyLoadoutImpl::CheckedFingerprint), so a record with corrupted contents
+     * is reported here rather than showing up as an empty loadout, and the manager's duplicate index is ready
+     * without any decoding once the library loads. Contents are still only decoded on first access.
+     * A record that throws any runtime exception is reported as a failure; the rest still load.
+     * @param records The serialized records.
+     * @param parallel Whether to parse in parallel.
+     * @return The parsed loadouts, and the records that failed.
+     */
+    public static ParseResult ParseRecords(List<String> records, boolean parallel) {
+        long start = System.nanoTime();
+        ILoadout[] parsed = new ILoadout[records.size()];
+        String[] reasons = new String[records.size()];
+
+        IntConsumer parseOne = i -> {
+            try {
+                LazyLoadoutImpl loadout = (LazyLoadoutImpl) LazyLoadoutImpl.Deserializer.DeserializeString(records.get(i));
+                loadout.CheckedFingerprint();
+                parsed[i] = loadout;
+            }
+            catch (RuntimeException re) {
+                reasons[i] = re instanceof IllegalArgumentException ? String.valueOf(re.getMessage()) : re.toString();
+            }
+        };
+
+        IntStream indexes = IntStream.range(0, records.size());
+        if (parallel) {
+            // Parallel streams run on the common fork-join pool, which is shared and sized to the machine.
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(parseOne);
+
+        List<ParseResult.Failure> failures = new ArrayList<>();
+        for (int i = 0; i < reasons.length; i++) {
+            if (reasons[i] != null) {
+                failures.add(new ParseResult.Failure(i, records.get(i), reasons[i]));
+            }
+        }
+        Metrics.Timer(Metrics.PARSE).Since(start);
+        Metrics.Count(Metrics.PARSE_FAILURES, failures.size());
+        return new ParseResult(parsed, failures);
+    }
+
+    /**
+     * Parses pasted share codes, one per line, in any format ShareCodes accepts (including FullSerialize output).
+     * Lines are read one at a time, so the text is never split into an array of lines.
+     * @param text The pasted text.
+     * @return One entry per line, indexed by line number from 0. Blank lines have no loadout and no failure.
+     */
+    public static ParseResult ParseShareCodes(String text) {
+        long start = System.nanoTime();
+        List<ILoadout> parsed = new ArrayList<>();
+        List<ParseResult.Failure> failures = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new StringReader(text))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ILoadout loadout = null;
+                if (!line.isBlank()) {
                     try {
-                        return LoadoutImpl.Deserializer.DeserializeString(raw);
-                    } catch (IllegalArgumentException iae) {
-                        System.err.println("Could not parse loadout: " + raw);
-                        return null;
+                        loadout = ShareCodes.Decode(line);
+                    }
+                    catch (IllegalArgumentException iae) {
+                        failures.add(new ParseResult.Failure(parsed.size(), line, String.valueOf(iae.getMessage())));
                     }
                 }
-        ).filter(Objects::nonNull).collect(Collectors.toList());
-        if (lines.length != result.size()) {
-            // TODO: Can we turn off autosave here, just in case?
-            System.err.println(
-                "WARNING: failed to parse " + (lines.length - result.size()) + " out of " + lines.length + " loadouts."
-            );
+                parsed.add(loadout);
+            }
         }
-        return result;
+        catch (IOException ioe) {
+            // Reading from a string can't fail.
+            throw new UncheckedIOException(ioe);
+        }
+        Metrics.Timer(Metrics.PARSE).Since(start);
+        Metrics.Count(Metrics.PARSE_FAILURES, failures.size());
+        return new ParseResult(parsed.toArray(new ILoadout[0]), failures);
     }
 
     /**
@@ -61,7 +146,10 @@ public class DataIO {
      * @return A newline-separated list of serialized loadouts representing the provided collection.
      */
     public static String FullSerialize(Collection<ILoadout> loadouts) {
+        long start = System.nanoTime();
         List<String> encoded = loadouts.stream().map(ISerializable::SerializeString).collect(Collectors.toList());
-        return String.join("\n", encoded);
+        String result = String.join("\n", encoded);
+        Metrics.Timer(Metrics.SERIALIZE_FULL).Since(start);
+        return result;
     }
 }
@@ -0,0 +1,497 @@
+package com.loadoutsaver;
+
+import com.loadoutsaver.interfaces.ILoadout;
+import com.loadoutsaver.interfaces.ILoadoutStore;
+import net.runelite.client.RuneLite;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Stores loadouts in a local append-only log, so that a change costs one small append rather than a rewrite.
+ * The log is a header followed by records of the form:
+ * {type}{body length}{body}{crc32 of type, length and body}
+ * where the type is PUT (record id, serialized loadout), DELETE (record id) or ORDER (record ids in the user's order).
+ * Loading is one sequential scan over a memory-mapped view of the file. A record with a bad checksum is skipped by
+ * resyncing on the next intact record, and the damaged log is backed up and then compacted. A torn record at the end
+ * (from a crash mid-append) ends the scan; later appends overwrite it.
+ * Once superseded records make up most of the log, it is compacted by rewriting the live records to a new file.
+ * If the log does not exist yet, the loadouts are migrated from another store on first load.
+ */
+public class FileLoadoutStore implements ILoadoutStore {
+
+    public static final Path DEFAULT_PATH = RuneLite.RUNELITE_DIR.toPath().resolve("loadout-saver").resolve("loadouts.log");
+
+    private static final int MAGIC = 0x4C534C47; // "LSLG"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte ORDER = 3;
+
+    // Type and length before the body, checksum after it.
+    private static final int RECORD_OVERHEAD = 1 + Integer.BYTES + Integer.BYTES;
+
+    // Compaction only pays off once the log has a meaningful amount of dead weight.
+    private static final long COMPACTION_MIN_BYTES = 64 * 1024;
+
+    private final Path path;
+    private final ILoadoutStore migrateFrom;
+
+    // The record id each stored loadout was written under. Loadouts are immutable, so identity is enough.
+    private final Map<ILoadout, Long> recordIds = new IdentityHashMap<>();
+
+    // Size in the log of each live PUT record, for deciding when to compact.
+    private final Map<Long, Integer> recordBytes = new HashMap<>();
+
+    private long nextId = 0;
+    private List<Long> storedOrder = new ArrayList<>();
+    private int orderBytes = 0;
+
+    // Where the next record is written: the end of the last intact record.
+    private long appendPosition = HEADER_BYTES;
+
+    // Records the last load could not read.
+    private int unreadable = 0;
+
+    /**
+     * @param path The log file. Its directory is created if needed.
+     * @param migrateFrom The store to copy loadouts from if the log does not exist yet, or null.
+     */
+    public FileLoadoutStore(Path path, ILoadoutStore migrateFrom) {
+        this.path = path;
+        this.migrateFrom = migrateFrom;
+    }
+
+    /**
+     * @throws UncheckedIOException If the log exists but cannot be read. Nothing is returned in that case,
+     *         since saving an empty collection over it would lose the user's loadouts.
+     */
+    @Override
+    public synchronized List<ILoadout> Load() {
+        recordIds.clear();
+        recordBytes.clear();
+        storedOrder = new ArrayList<>();
+        orderBytes = 0;
+        appendPosition = HEADER_BYTES;
+        unreadable = 0;
+
+        if (!Files.exists(path)) {
+            return Migrate();
+        }
+
+        Map<Long, String> records = new LinkedHashMap<>();
+        boolean headerless;
+        boolean damaged = false;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            headerless = size < HEADER_BYTES;
+            if (headerless) {
+                System.err.println("Loadout log has no header; starting a new log.");
+            }
+            else {
+                MappedByteBuffer log = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (log.getInt() != MAGIC || log.getInt() != FORMAT_VERSION) {
+                    throw new IOException("Not a loadout log, or written by a newer version: " + path);
+                }
+                damaged = Scan(log, records);
+            }
+        }
+        catch (IOException ioe) {
+            throw new UncheckedIOException("Could not read loadout log " + path, ioe);
+        }
+        if (damaged) {
+            try {
+                BackUp();
+            }
+            catch (IOException ioe) {
+                // Appends could overwrite the damaged bytes, so don't load until a copy of them is kept.
+                throw new UncheckedIOException("Could not back up the damaged loadout log " + path, ioe);
+            }
+        }
+        if (headerless) {
+            // Only a crash while creating the log leaves it this short, so there is nothing to lose.
+            Compact(new ArrayList<>());
+            return new ArrayList<>();
+        }
+
+        // Loadouts written just before a crash may be missing from the last order record; keep them at the end.
+        List<Long> order = new ArrayList<>(storedOrder);
+        Set<Long> ordered = new HashSet<>(storedOrder);
+        for (long id : records.keySet()) {
+            if (!ordered.contains(id)) {
+                order.add(id);
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(order.size());
+        List<String> serialized = new ArrayList<>(order.size());
+        for (long id : order) {
+            String record = records.get(id);
+            if (record != null) {
+                ids.add(id);
+                serialized.add(record);
+            }
+        }
+
+        ParseResult parsed = DataIO.ParseRecords(serialized, serialized.size() >= DataIO.PARALLEL_THRESHOLD);
+        parsed.ReportFailures();
+        unreadable += parsed.GetFailures().size();
+        List<ILoadout> result = new ArrayList<>(serialized.size());
+        for (int i = 0; i < parsed.Size(); i++) {
+            ILoadout loadout = parsed.Get(i);
+            if (loadout != null) {
+                recordIds.put(loadout, ids.get(i));
+                result.add(loadout);
+            }
+        }
+        if (damaged) {
+            // The backup keeps the damaged records; rewriting the log now means later loads don't trip over them.
+            Compact(result);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized int GetUnreadableCount() {
+        return unreadable;
+    }
+
+    /**
+     * Replays the log into the given map of live records, and leaves the latest order in storedOrder.
+     * A record that fails its checksum is skipped by resyncing on the next record that passes one, so a damaged
+     * record never hides the ones after it. Appends go after the last intact record; anything past it was
+     * checked and holds no intact record.
+     * @return True if the log was damaged, rather than just ending in a torn append, so it should be backed up.
+     */
+    private boolean Scan(ByteBuffer log, Map<Long, String> records) {
+        int skipped = 0;
+        int position = log.position();
+        appendPosition = position;
+        while (position < log.limit()) {
+            int length = IntactLength(log, position);
+            if (length < 0) {
+                int next = FindIntactRecord(log, position + 1);
+                if (next < 0) {
+                    break;
+                }
+                skipped++;
+                position = next;
+                continue;
+            }
+            if (!Apply(log.get(position), Body(log, position, length), length + RECORD_OVERHEAD, records)) {
+                skipped++;
+            }
+            position += length + RECORD_OVERHEAD;
+            appendPosition = position;
+        }
+        unreadable += skipped;
+        if (skipped > 0) {
+            System.err.println("Skipped " + skipped + " corrupted records in the loadout log.");
+        }
+
+        int remaining = log.limit() - position;
+        if (remaining == 0) {
+            return skipped > 0;
+        }
+        // A crash mid-append leaves a record that claims more bytes than the file has; anything else is damage.
+        boolean torn = remaining < RECORD_OVERHEAD || log.getInt(position + 1) > remaining - RECORD_OVERHEAD;
+        System.err.println("Ignoring " + remaining + (torn ? " bytes of incomplete records" : " unreadable bytes")
+                + " at the end of the loadout log.");
+        return skipped > 0 || !torn;
+    }
+
+    /**
+     * @return The body length of the record at the given position, or -1 if there isn't an intact record there.
+     */
+    private static int IntactLength(ByteBuffer log, int position) {
+        int remaining = log.limit() - position;
+        if (remaining < RECORD_OVERHEAD) {
+            return -1;
+        }
+        int length = log.getInt(position + 1);
+        if (length < 0 || length > remaining - RECORD_OVERHEAD) {
+            return -1;
+        }
+        int checksum = log.getInt(position + 1 + Integer.BYTES + length);
+        return checksum == Checksum(log.get(position), length, Body(log, position, length)) ? length : -1;
+    }
+
+    /**
+     * Searches for the next intact record of a known type, starting at the given position.
+     * @return Its position, or -1 if there are no more intact records.
+     */
+    private static int FindIntactRecord(ByteBuffer log, int from) {
+        for (int position = from; position <= log.limit() - RECORD_OVERHEAD; position++) {
+            byte type = log.get(position);
+            if ((type == PUT || type == DELETE || type == ORDER) && IntactLength(log, position) >= 0) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private static ByteBuffer Body(ByteBuffer log, int position, int length) {
+        ByteBuffer body = log.duplicate();
+        body.position(position + 1 + Integer.BYTES);
+        body.limit(position + 1 + Integer.BYTES + length);
+        return body.slice();
+    }
+
+    /**
+     * Replays a single intact record.
+     * @return False if the record's type or body is not one this version writes.
+     */
+    private boolean Apply(byte type, ByteBuffer body, int recordSize, Map<Long, String> records) {
+        int length = body.remaining();
+        if (type == PUT && length >= Long.BYTES) {
+            long id = body.getLong();
+            byte[] serialized = new byte[body.remaining()];
+            body.get(serialized);
+            records.put(id, new String(serialized, StandardCharsets.UTF_8));
+            recordBytes.put(id, recordSize);
+            nextId = Math.max(nextId, id + 1);
+            return true;
+        }
+        if (type == DELETE && length == Long.BYTES) {
+            long id = body.getLong();
+            records.remove(id);
+            recordBytes.remove(id);
+            return true;
+        }
+        if (type == ORDER && length >= Integer.BYTES) {
+            int count = body.getInt();
+            if (count < 0 || (long) count * Long.BYTES != body.remaining()) {
+                return false;
+            }
+            storedOrder = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                storedOrder.add(body.getLong());
+            }
+            orderBytes = recordSize;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Keeps a copy of a damaged log before anything is appended to it, so the damaged records can still be
+     * recovered by hand.
+     */
+    private void BackUp() throws IOException {
+        Path backup = path.resolveSibling(path.getFileName() + "." + System.currentTimeMillis() + ".corrupt");
+        Files.copy(path, backup);
+        System.err.println("The loadout log is damaged; a copy was kept at " + backup);
+    }
+
+    /**
+     * Copies loadouts from the other store into a new log.
+     * The other store is left as it was, as a backup.
+     * @return The migrated loadouts.
+     */
+    private List<ILoadout> Migrate() {
+        List<ILoadout> result = migrateFrom == null ? new ArrayList<>() : migrateFrom.Load();
+        unreadable = migrateFrom == null ? 0 : migrateFrom.GetUnreadableCount();
+        if (!result.isEmpty()) {
+            System.out.println("Migrating " + result.size() + " loadouts to " + path);
+        }
+        Compact(result);
+        return result;
+    }
+
+    @Override
+    public synchronized void Save(List<ILoadout> loadouts) {
+        Map<ILoadout, Long> updatedIds = new IdentityHashMap<>();
+        Map<Long, Integer> updatedBytes = new HashMap<>(recordBytes);
+        List<Long> order = new ArrayList<>(loadouts.size());
+        long updatedNextId = nextId;
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+
+        for (ILoadout loadout : loadouts) {
+            Long id = recordIds.get(loadout);
+            if (id == null) {
+                id = updatedIds.get(loadout);
+            }
+            if (id == null) {
+                id = updatedNextId++;
+                updatedBytes.put(id, WriteRecord(batch, PUT, PutBody(id, loadout)));
+            }
+            updatedIds.put(loadout, id);
+            order.add(id);
+        }
+
+        for (Map.Entry<ILoadout, Long> removed : recordIds.entrySet()) {
+            if (!updatedIds.containsKey(removed.getKey())) {
+                WriteRecord(batch, DELETE, ByteBuffer.allocate(Long.BYTES).putLong(removed.getValue()).array());
+                updatedBytes.remove(removed.getValue());
+            }
+        }
+
+        int updatedOrderBytes = orderBytes;
+        if (!order.equals(storedOrder)) {
+            updatedOrderBytes = WriteRecord(batch, ORDER, OrderBody(order));
+        }
+
+        if (batch.size() == 0) {
+            return;
+        }
+
+        // State is only updated once the batch is on disk, so a failed save is retried in full.
+        long written;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+            long position = appendPosition;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+            Metrics.Count(Metrics.FILE_BYTES_APPENDED, position - appendPosition);
+            written = position;
+            TryTruncate(channel, written);
+        }
+        catch (IOException ioe) {
+            throw new UncheckedIOException("Could not append to loadout log " + path, ioe);
+        }
+
+        recordIds.clear();
+        recordIds.putAll(updatedIds);
+        recordBytes.clear();
+        recordBytes.putAll(updatedBytes);
+        nextId = updatedNextId;
+        storedOrder = order;
+        orderBytes = updatedOrderBytes;
+        appendPosition = written;
+
+        long liveBytes = HEADER_BYTES + orderBytes + recordBytes.values().stream().mapToLong(Integer::longValue).sum();
+        if (appendPosition > COMPACTION_MIN_BYTES && appendPosition > 2 * liveBytes) {
+            Compact(loadouts);
+        }
+    }
+
+    /**
+     * Rewrites the log with only the given loadouts, replacing the old log atomically.
+     * This runs on the save thread (or during load), so it never blocks the UI.
+     * If the old log can't be replaced, appends simply continue on it.
+     */
+    private void Compact(List<ILoadout> loadouts) {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(log);
+        Map<ILoadout, Long> compactedIds = new IdentityHashMap<>();
+        Map<Long, Integer> compactedBytes = new HashMap<>();
+        List<Long> order = new ArrayList<>(loadouts.size());
+        long id = 0;
+        try {
+            header.writeInt(MAGIC);
+            header.writeInt(FORMAT_VERSION);
+            for (ILoadout loadout : loadouts) {
+                Long existing = compactedIds.get(loadout);
+                if (existing == null) {
+                    compactedBytes.put(id, WriteRecord(log, PUT, PutBody(id, loadout)));
+                    compactedIds.put(loadout, id);
+                    existing = id++;
+                }
+                order.add(existing);
+            }
+            int compactedOrderBytes = WriteRecord(log, ORDER, OrderBody(order));
+
+            Files.createDirectories(path.getParent());
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(
+                    temporary,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE
+            )) {
+                ByteBuffer buffer = ByteBuffer.wrap(log.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            recordIds.clear();
+            recordIds.putAll(compactedIds);
+            recordBytes.clear();
+            recordBytes.putAll(compactedBytes);
+            nextId = id;
+            storedOrder = order;
+            orderBytes = compactedOrderBytes;
+            appendPosition = log.size();
+        }
+        catch (IOException ioe) {
+            System.err.println("Could not compact loadout log " + path + ": " + ioe);
+        }
+    }
+
+    /**
+     * Drops anything after the last intact record. Some platforms refuse while the file is still mapped;
+     * that is harmless, since the next load finds no intact record in the leftover bytes and appends overwrite them.
+     */
+    private static void TryTruncate(FileChannel channel, long size) {
+        try {
+            if (channel.size() > size) {
+                channel.truncate(size);
+            }
+        }
+        catch (IOException ioe) {
+            System.err.println("Could not trim the loadout log: " + ioe);
+        }
+    }
+
+    private static byte[] PutBody(long id, ILoadout loadout) {
+        long start = System.nanoTime();
+        byte[] serialized = loadout.SerializeString().getBytes(StandardCharsets.UTF_8);
+        Metrics.Timer(Metrics.SERIALIZE_RECORD).Since(start);
+        return ByteBuffer.allocate(Long.BYTES + serialized.length).putLong(id).put(serialized).array();
+    }
+
+    private static byte[] OrderBody(List<Long> order) {
+        ByteBuffer body = ByteBuffer.allocate(Integer.BYTES + order.size() * Long.BYTES);
+        body.putInt(order.size());
+        for (long id : order) {
+            body.putLong(id);
+        }
+        return body.array();
+    }
+
+    /**
+     * @return The number of bytes written.
+     */
+    private static int WriteRecord(ByteArrayOutputStream out, byte type, byte[] body) {
+        ByteBuffer record = ByteBuffer.allocate(body.length + RECORD_OVERHEAD);
+        record.put(type);
+        record.putInt(body.length);
+        record.put(body);
+        record.putInt(Checksum(type, body.length, ByteBuffer.wrap(body)));
+        out.write(record.array(), 0, record.capacity());
+        return record.capacity();
+    }
+
+    private static int Checksum(byte type, int length, ByteBuffer body) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(1 + Integer.BYTES).put(type).putInt(length).flip());
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+}
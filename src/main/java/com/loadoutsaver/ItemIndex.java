@@ -0,0 +1,179 @@
+package com.loadoutsaver;
+
+import com.loadoutsaver.implementations.LazyLoadoutImpl;
+import com.loadoutsaver.interfaces.IEquipment;
+import com.loadoutsaver.interfaces.IInventory;
+import com.loadoutsaver.interfaces.ILoadout;
+import net.runelite.api.EquipmentInventorySlot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An inverted index from item id to the loadouts that use the item, with the slot and quantity of each use.
+ * Not thread safe; the loadout manager only touches it while holding its own lock.
+ */
+public class ItemIndex {
+
+    /**
+     * One use of an item in a loadout.
+     */
+    public static class Posting {
+        private final long loadoutId;
+        private final EquipmentInventorySlot equipmentSlot;
+        private final int inventorySlot;
+        private final int quantity;
+
+        private Posting(long loadoutId, EquipmentInventorySlot equipmentSlot, int inventorySlot, int quantity) {
+            this.loadoutId = loadoutId;
+            this.equipmentSlot = equipmentSlot;
+            this.inventorySlot = inventorySlot;
+            this.quantity = quantity;
+        }
+
+        public long GetLoadoutId() {
+            return loadoutId;
+        }
+
+        /**
+         * @return The equipment slot the item is worn in, or null if it is in the inventory.
+         */
+        public EquipmentInventorySlot GetEquipmentSlot() {
+            return equipmentSlot;
+        }
+
+        /**
+         * @return The inventory slot the item is in, or -1 if it is worn.
+         */
+        public int GetInventorySlot() {
+            return inventorySlot;
+        }
+
+        public int GetQuantity() {
+            return quantity;
+        }
+    }
+
+    // Item id to loadout id to every use of the item in that loadout.
+    private final Map<Integer, Map<Long, List<Posting>>> postings = new HashMap<>();
+
+    void Add(long loadoutId, ILoadout loadout) {
+        loadout = Contents(loadout);
+        IInventory inventory = loadout.GetInventory();
+        for (int i = 0; i < inventory.Size(); i++) {
+            int itemID = inventory.GetItemID(i);
+            if (itemID >= 0) {
+                Post(itemID, new Posting(loadoutId, null, i, inventory.GetQuantity(i)));
+            }
+        }
+
+        IEquipment equipment = loadout.GetEquipment();
+        for (EquipmentInventorySlot slot : EquipmentInventorySlot.values()) {
+            int itemID = equipment.GetItemID(slot);
+            if (itemID >= 0) {
+                Post(itemID, new Posting(loadoutId, slot, -1, equipment.GetQuantity(slot)));
+            }
+        }
+    }
+
+    /**
+     * Indexing reads every loadout, so lazy loadouts are read without being left decoded.
+     */
+    private static ILoadout Contents(ILoadout loadout) {
+        return loadout instanceof LazyLoadoutImpl ? ((LazyLoadoutImpl) loadout).Contents() : loadout;
+    }
+
+    private void Post(int itemID, Posting posting) {
+        postings.computeIfAbsent(
+                itemID, id -> new HashMap<>()
+        ).computeIfAbsent(
+                posting.loadoutId, id -> new ArrayList<>(1)
+        ).add(posting);
+    }
+
+    void Remove(long loadoutId, ILoadout loadout) {
+        loadout = Contents(loadout);
+        IInventory inventory = loadout.GetInventory();
+        for (int i = 0; i < inventory.Size(); i++) {
+            Unpost(inventory.GetItemID(i), loadoutId);
+        }
+        IEquipment equipment = loadout.GetEquipment();
+        for (EquipmentInventorySlot slot : EquipmentInventorySlot.values()) {
+            Unpost(equipment.GetItemID(slot), loadoutId);
+        }
+    }
+
+    private void Unpost(int itemID, long loadoutId) {
+        Map<Long, List<Posting>> byLoadout = postings.get(itemID);
+        if (byLoadout != null) {
+            byLoadout.remove(loadoutId);
+            if (byLoadout.isEmpty()) {
+                postings.remove(itemID);
+            }
+        }
+    }
+
+    void Clear() {
+        postings.clear();
+    }
+
+    /**
+     * @return Every use of the item across all loadouts.
+     */
+    List<Posting> GetPostings(int itemID) {
+        Map<Long, List<Posting>> byLoadout = postings.get(itemID);
+        if (byLoadout == null) {
+            return Collections.emptyList();
+        }
+        List<Posting> result = new ArrayList<>();
+        byLoadout.values().forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * @return Every item id used by at least one loadout.
+     */
+    Set<Integer> GetItemIDs() {
+        return new HashSet<>(postings.keySet());
+    }
+
+    /**
+     * @return The ids of loadouts using at least one of the given items.
+     */
+    Set<Long> AnyOf(int[] itemIDs) {
+        Set<Long> result = new HashSet<>();
+        for (int itemID : itemIDs) {
+            Map<Long, List<Posting>> byLoadout = postings.get(itemID);
+            if (byLoadout != null) {
+                result.addAll(byLoadout.keySet());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Each term is a group of alternative item ids, for example every variant of an item with the same name.
+     * @return The ids of loadouts using an item from every term.
+     */
+    Set<Long> AllOf(List<int[]> terms) {
+        if (terms.isEmpty()) {
+            return new HashSet<>();
+        }
+        List<Set<Long>> matches = new ArrayList<>(terms.size());
+        for (int[] term : terms) {
+            matches.add(AnyOf(term));
+        }
+        // Intersecting from the smallest set keeps the work proportional to the rarest term.
+        matches.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        Set<Long> result = matches.get(0);
+        for (int i = 1; i < matches.size() && !result.isEmpty(); i++) {
+            result.retainAll(matches.get(i));
+        }
+        return result;
+    }
+}
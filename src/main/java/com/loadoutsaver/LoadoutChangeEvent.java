@@ -0,0 +1,132 @@
+package com.loadoutsaver;
+
+import com.loadoutsaver.interfaces.ILoadout;
+
+import java.util.List;
+
+/**
+ * Describes a single change to the loadout collection, so that subscribers can update incrementally.
+ */
+public class LoadoutChangeEvent {
+
+    public enum Type {
+        /** A loadout was inserted at the index. */
+        ADDED,
+        /** The loadout at the index was removed. */
+        REMOVED,
+        /** A loadout moved from the previous index to the index. */
+        MOVED,
+        /** The loadout at the index was replaced by a renamed copy. The previous loadout is the old copy. */
+        RENAMED,
+        /** Every loadout was removed. The index is -1 and there is no loadout. */
+        CLEARED,
+        /** The library finished loading and replaced the (empty) collection. The index is -1 and there is no loadout. */
+        LOADED,
+        /** Several changes were made together. The index is -1, there is no loadout, and the loadouts are the result. */
+        BATCH,
+        /** The library could not be loaded (see LoadoutManager.GetLoadFailure). The index is -1 and there is no loadout. */
+        LOAD_FAILED
+    }
+
+    private final Type type;
+    private final long id;
+    private final int index;
+    private final int previousIndex;
+    private final ILoadout loadout;
+    private final ILoadout previous;
+    private final List<ILoadout> loadouts;
+
+    private LoadoutChangeEvent(Type type, long id, int index, int previousIndex, ILoadout loadout, ILoadout previous) {
+        this(type, id, index, previousIndex, loadout, previous, null);
+    }
+
+    private LoadoutChangeEvent(
+            Type type, long id, int index, int previousIndex, ILoadout loadout, ILoadout previous, List<ILoadout> loadouts
+    ) {
+        this.type = type;
+        this.id = id;
+        this.index = index;
+        this.previousIndex = previousIndex;
+        this.loadout = loadout;
+        this.previous = previous;
+        this.loadouts = loadouts;
+    }
+
+    static LoadoutChangeEvent Added(long id, int index, ILoadout loadout) {
+        return new LoadoutChangeEvent(Type.ADDED, id, index, -1, loadout, null);
+    }
+
+    static LoadoutChangeEvent Removed(long id, int index, ILoadout loadout) {
+        return new LoadoutChangeEvent(Type.REMOVED, id, index, -1, loadout, null);
+    }
+
+    static LoadoutChangeEvent Moved(long id, int previousIndex, int index, ILoadout loadout) {
+        return new LoadoutChangeEvent(Type.MOVED, id, index, previousIndex, loadout, null);
+    }
+
+    static LoadoutChangeEvent Renamed(long id, int index, ILoadout loadout, ILoadout previous) {
+        return new LoadoutChangeEvent(Type.RENAMED, id, index, -1, loadout, previous);
+    }
+
+    static LoadoutChangeEvent Cleared() {
+        return new LoadoutChangeEvent(Type.CLEARED, -1, -1, -1, null, null);
+    }
+
+    static LoadoutChangeEvent Loaded(List<ILoadout> loadouts) {
+        return new LoadoutChangeEvent(Type.LOADED, -1, -1, -1, null, null, loadouts);
+    }
+
+    static LoadoutChangeEvent Batch(List<ILoadout> loadouts) {
+        return new LoadoutChangeEvent(Type.BATCH, -1, -1, -1, null, null, loadouts);
+    }
+
+    static LoadoutChangeEvent LoadFailed() {
+        return new LoadoutChangeEvent(Type.LOAD_FAILED, -1, -1, -1, null, null);
+    }
+
+    public Type GetType() {
+        return type;
+    }
+
+    /**
+     * @return The manager's id for the loadout involved (renamed copies keep their id). -1 for CLEARED, LOADED, BATCH and LOAD_FAILED.
+     */
+    public long GetId() {
+        return id;
+    }
+
+    /**
+     * @return The index the change applies to, after the change. -1 for CLEARED, LOADED, BATCH and LOAD_FAILED.
+     */
+    public int GetIndex() {
+        return index;
+    }
+
+    /**
+     * @return For MOVED, the index the loadout moved from. Otherwise -1.
+     */
+    public int GetPreviousIndex() {
+        return previousIndex;
+    }
+
+    /**
+     * @return The loadout that was added, removed, moved or renamed. Null for CLEARED, LOADED, BATCH and LOAD_FAILED.
+     */
+    public ILoadout GetLoadout() {
+        return loadout;
+    }
+
+    /**
+     * @return For RENAMED, the loadout before it was renamed. Otherwise null.
+     */
+    public ILoadout GetPrevious() {
+        return previous;
+    }
+
+    /**
+     * @return For LOADED and BATCH, the resulting collection. Otherwise null.
+     */
+    public List<ILoadout> GetLoadouts() {
+        return loadouts;
+    }
+}
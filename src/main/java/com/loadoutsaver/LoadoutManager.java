@@ -1,84 +1,824 @@
 package com.loadoutsaver;
 
 import com.loadoutsaver.interfaces.ILoadout;
+import com.loadoutsaver.interfaces.ILoadoutStore;
 import com.loadoutsaver.interfaces.ISubscriber;
-import net.runelite.client.config.ConfigManager;
 
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
-import com.loadoutsaver.LoadoutSaverPlugin;
-
 /**
  * The loadout manager is responsible for coordinating access and updates to and from the user's set of loadouts.
+ * It may be used from any thread. The collection is copy-on-write: every change publishes a new immutable list,
+ * so GetLoadouts() and the save thread read a consistent version without locking. Changes are made one at a time,
+ * and each change's notifications are sent before the next change starts, on the thread that made it.
+ * The library can be loaded in the background. Until it is, the collection is empty, additions and clears are
+ * queued and replayed once it has loaded, and nothing is saved. If loading fails, queued changes are dropped,
+ * further changes are refused, and nothing is ever saved, so the store is never overwritten with an empty collection.
  */
 public class LoadoutManager {
-    private final List<ILoadout> loadouts;
+    // Immutable; replaced as a whole by each change.
+    private volatile List<ILoadout> loadouts;
+
+    // Held for the whole of a change, including its notifications, so subscribers see changes in order.
+    // The indexes below are guarded by the manager's own monitor, which is only held briefly.
+    private final Object writeLock = new Object();
 
-    private final HashSet<ISubscriber<Stream<ILoadout>>> subscribers = new HashSet<>();
+    private final Set<ISubscriber<Stream<ILoadout>>> subscribers = new CopyOnWriteArraySet<>();
+
+    private final Set<ISubscriber<LoadoutChangeEvent>> changeSubscribers = new CopyOnWriteArraySet<>();
 
     private final LoadoutSaverConfig config;
-    private final ConfigManager configManager;
+    private final SaveScheduler saveScheduler;
+
+    // The saved loadouts with each fingerprint. Kept up to date by Register and Unregister, so within a
+    // batch it reflects the transaction's working collection, and rolling the batch back restores it.
+    private final Map<Long, List<ILoadout>> byFingerprint = new HashMap<>();
+
+    // Hash indexes over the loadouts list, so lookups by id or name don't scan it.
+    private final Map<Long, ILoadout> byId = new HashMap<>();
+    private final Map<ILoadout, Long> idByLoadout = new IdentityHashMap<>();
+    private final Map<String, Set<Long>> idsByName = new HashMap<>();
+    private long nextId = 0;
+
+    // Set once the library has been read from the store. Only written while holding the write lock.
+    private volatile boolean loaded = false;
+
+    // Set if the library could not be loaded. Only written while holding the write lock.
+    private volatile Throwable loadFailure = null;
+
+    // How many stored loadouts the store could not read. Set before the library is marked loaded.
+    private volatile int unreadableCount = 0;
 
-    public LoadoutManager(LoadoutSaverConfig config, ConfigManager configManager) {
-        this(DataIO.Parse(config.loadouts()), config, configManager);
+    // Changes made before the library loaded, replayed in order afterwards. Guarded by the write lock.
+    private final List<Runnable> deferred = new ArrayList<>();
+
+    // The batch being run, if any. Guarded by the write lock.
+    private Transaction openTransaction = null;
+
+    private final CompletableFuture<Void> loading;
+    private final int expectedCount;
+
+    // Item id to the loadouts using it. Built on the load thread, since building it reads every loadout's contents,
+    // and kept up to date by Register and Unregister. Null until the library has loaded.
+    private ItemIndex itemIndex = null;
+
+    /**
+     * Loads the library on the calling thread.
+     */
+    public LoadoutManager(LoadoutSaverConfig config, ILoadoutStore store) {
+        this(config, store, Runnable::run);
     }
 
     /**
-     * Saves the active loadout collection to the runelite configuration file.
-     * @param configManager The configuration manager, used to write to the configuration file.
+     * Loads the library on the given executor. Subscribers are sent a LOADED event when it is ready.
+     * @param config The plugin configuration.
+     * @param store The store to load from and save to.
+     * @param loader Where to run the load.
      */
-    public void save(ConfigManager configManager) {
-        System.out.println("Serializing...");
-        String serialized = DataIO.FullSerialize(loadouts);
-        System.out.println("Saving...");
-        configManager.setConfiguration(
-                LoadoutSaverPlugin.CONFIG_GROUP_NAME,
-                LoadoutSaverPlugin.CONFIG_SAVED_LOADOUT_KEY,
-                serialized
+    public LoadoutManager(LoadoutSaverConfig config, ILoadoutStore store, Executor loader) {
+        this.config = config;
+        this.loadouts = Collections.emptyList();
+        this.saveScheduler = new SaveScheduler(store, this::Snapshot);
+        this.expectedCount = store.EstimateCount();
+        // The failed state is recorded before the future completes, so anyone waiting on it sees that state.
+        this.loading = CompletableFuture.runAsync(() -> {
+            List<ILoadout> stored = store.Load();
+            FinishLoading(stored, store.GetUnreadableCount());
+        }, loader).whenComplete(
+                (ignored, failure) -> {
+                    if (failure != null) {
+                        boolean wrapped = failure instanceof CompletionException && failure.getCause() != null;
+                        FailLoading(wrapped ? failure.getCause() : failure);
+                    }
+                }
         );
-        System.out.println("Save complete.");
     }
 
+    private void FailLoading(Throwable failure) {
+        synchronized (writeLock) {
+            System.err.println("Could not load loadouts: " + failure);
+            if (loaded) {
+                // The library loaded; something went wrong afterwards (for example, in a subscriber).
+                return;
+            }
+            if (!deferred.isEmpty()) {
+                System.err.println("Dropping " + deferred.size() + " changes made while the loadouts were loading.");
+                deferred.clear();
+            }
+            loadFailure = failure;
+            Notify(LoadoutChangeEvent.LoadFailed());
+        }
+    }
+
+    private void FinishLoading(List<ILoadout> stored, int unreadable) {
+        // Stores that parse with DataIO have already fingerprinted every loadout. For any others, do it here on
+        // the load thread, before taking the locks, so registering only reads cached fingerprints.
+        for (ILoadout loadout : stored) {
+            loadout.Fingerprint();
+        }
+        synchronized (writeLock) {
+            // Changes are deferred until the library is marked loaded, so nothing else can be registered before the
+            // stored loadouts are, and they get the ids that follow nextId in order. The item index is built for
+            // those ids here, outside the manager's monitor, so item queries are never held up by it.
+            ItemIndex index = new ItemIndex();
+            for (int i = 0; i < stored.size(); i++) {
+                index.Add(nextId + i, stored.get(i));
+            }
+            LoadoutChangeEvent event;
+            synchronized (this) {
+                for (ILoadout loadout : stored) {
+                    Register(loadout);
+                }
+                this.itemIndex = index;
+                this.loadouts = Freeze(Copy(stored));
+                this.unreadableCount = unreadable;
+                this.loaded = true;
+                event = LoadoutChangeEvent.Loaded(this.loadouts);
+            }
+            // Loading changes nothing in the store, so there is nothing to save yet.
+            Notify(event);
+
+            // Each change is applied on its own, so one that fails doesn't drop the ones queued after it.
+            List<Runnable> replay = new ArrayList<>(deferred);
+            deferred.clear();
+            for (Runnable change : replay) {
+                try {
+                    change.run();
+                }
+                catch (RuntimeException re) {
+                    System.err.println("Could not apply a change made while the loadouts were loading: " + re);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return True once the library has been loaded.
+     */
+    public boolean IsLoaded() {
+        return loaded;
+    }
+
+    /**
+     * @return Why the library could not be loaded, or null if it loaded (or is still loading).
+     *         Once set, the collection stays empty and every change is refused.
+     */
+    public Throwable GetLoadFailure() {
+        return loadFailure;
+    }
+
+    /**
+     * @return How many stored loadouts could not be read when the library loaded. They are not in the collection.
+     */
+    public int GetUnreadableCount() {
+        return unreadableCount;
+    }
+
+    /**
+     * @return The number of loadouts the store expects to load, or -1 if unknown.
+     */
+    public int GetExpectedCount() {
+        return expectedCount;
+    }
+
+    /**
+     * @return A future that completes once the library has loaded, or fails if it could not be loaded.
+     */
+    public CompletableFuture<Void> WhenLoaded() {
+        return loading.copy();
+    }
+
+    /**
+     * Starts saving the active loadout collection to the store in the background.
+     * Only changed loadouts are written. Progress is reported to save status subscribers.
+     */
     public void save() {
-        this.save(this.configManager);
+        if (loaded) {
+            saveScheduler.SaveNow();
+        }
     }
 
-    private LoadoutManager(List<ILoadout> loadouts, LoadoutSaverConfig config, ConfigManager configManager) {
-        this.loadouts = loadouts;
-        this.configManager = configManager;
-        this.config = config;
+    /**
+     * Saves the active loadout collection and waits for the write to complete.
+     * No further saves are possible afterwards; this is intended for plugin shutdown.
+     * If the library is still loading, this waits for it first. If it failed to load, nothing is saved,
+     * since saving would overwrite the store with an empty collection.
+     */
+    public void flush() {
+        try {
+            loading.join();
+        }
+        catch (CompletionException | CancellationException failure) {
+            saveScheduler.Stop();
+            return;
+        }
+        saveScheduler.Flush();
     }
 
+    private void autoSave() {
+        if (config.autoSave()) {
+            saveScheduler.Request();
+        }
+    }
+
+    /**
+     * @return The current version of the collection. It never changes, so it is safe to read from any thread.
+     */
+    public List<ILoadout> Snapshot() {
+        return loadouts;
+    }
+
+    /**
+     * @return A stream over the current version of the collection; later changes don't affect it.
+     */
     public Stream<ILoadout> GetLoadouts() {
         return loadouts.stream();
     }
 
-    public void AddLoadout(ILoadout loadout) {
-        this.loadouts.add(loadout);
-        if (config.autoSave()) {
-            this.save();
+    private static List<ILoadout> Copy(List<ILoadout> loadouts) {
+        return new ArrayList<>(loadouts);
+    }
+
+    private static List<ILoadout> Freeze(List<ILoadout> loadouts) {
+        return Collections.unmodifiableList(loadouts);
+    }
+
+    /**
+     * @param loadout A saved loadout.
+     * @return The loadout's id, which stays the same for the rest of the session (including across renames),
+     *         or -1 if the loadout is not saved.
+     */
+    public synchronized long GetId(ILoadout loadout) {
+        Long id = idByLoadout.get(loadout);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @return The loadout with the given id, or null if there is none.
+     */
+    public synchronized ILoadout GetById(long id) {
+        return byId.get(id);
+    }
+
+    /**
+     * @return Every saved loadout with exactly the given name, in the order they were added.
+     */
+    public synchronized List<ILoadout> GetByName(String name) {
+        Set<Long> ids = idsByName.get(name);
+        if (ids == null) {
+            return Collections.emptyList();
         }
-        for (ISubscriber<Stream<ILoadout>> subscriber : this.subscribers) {
-            subscriber.Update(GetLoadouts());
+        List<ILoadout> result = new ArrayList<>(ids.size());
+        for (long id : ids) {
+            result.add(byId.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * Adds a loadout to the end of the collection, unless an identical loadout is already saved.
+     * @param loadout The loadout to add.
+     * @return True if the loadout was added; false if it was a duplicate, or the library failed to load.
+     *         While the library is loading, the addition is queued and true is returned; a duplicate is
+     *         dropped when the queue is replayed. Use IsLoaded to tell a queued addition from a completed one.
+     */
+    public boolean AddLoadout(ILoadout loadout) {
+        synchronized (writeLock) {
+            CheckNoBatch();
+            if (loadFailure != null) {
+                return false;
+            }
+            if (!loaded) {
+                deferred.add(() -> AddLoadout(loadout));
+                return true;
+            }
+            LoadoutChangeEvent event;
+            synchronized (this) {
+                if (IsDuplicate(loadout)) {
+                    return false;
+                }
+                List<ILoadout> next = Copy(this.loadouts);
+                next.add(loadout);
+                this.loadouts = Freeze(next);
+                long id = Register(loadout);
+                event = LoadoutChangeEvent.Added(id, next.size() - 1, loadout);
+            }
+            Publish(event);
+            return true;
+        }
+    }
+
+    /**
+     * Adds several loadouts to the end of the collection as one change: one autosave and one BATCH event,
+     * however many are added. Duplicates of saved loadouts, or of earlier loadouts in the batch, are skipped.
+     * @param toAdd The loadouts to add, in order.
+     * @return Whether each loadout was added. While the library is loading, the batch is queued and every entry is true.
+     *         If the library failed to load, every entry is false.
+     */
+    public boolean[] AddLoadouts(List<ILoadout> toAdd) {
+        boolean[] added = new boolean[toAdd.size()];
+        if (loadFailure != null) {
+            return added;
+        }
+        List<ILoadout> queued = new ArrayList<>(toAdd);
+        boolean applied = Batch(
+                tx -> {
+                    for (int i = 0; i < added.length; i++) {
+                        added[i] = tx.Add(queued.get(i));
+                    }
+                }
+        );
+        if (!applied) {
+            Arrays.fill(added, true);
+        }
+        return added;
+    }
+
+    /**
+     * Applies several changes as one: other threads see either none or all of them, the store is saved once,
+     * and subscribers are sent a single BATCH event (if anything changed). If the body throws, every change it
+     * made is rolled back and the exception is rethrown.
+     * While the library is loading, the whole batch is queued and run once it has loaded. If it throws then, it is
+     * rolled back and logged, and the changes queued after it are still applied.
+     * @param body Makes the changes through the given transaction, which is only valid during the call.
+     * @return True if the batch ran now; false if it was queued.
+     * @throws IllegalStateException If the library failed to load.
+     */
+    public boolean Batch(Consumer<Transaction> body) {
+        synchronized (writeLock) {
+            CheckNoBatch();
+            CheckNotFailed();
+            if (!loaded) {
+                deferred.add(() -> Batch(body));
+                return false;
+            }
+            LoadoutChangeEvent event = null;
+            synchronized (this) {
+                Transaction tx = new Transaction();
+                openTransaction = tx;
+                try {
+                    body.accept(tx);
+                }
+                catch (RuntimeException | Error failure) {
+                    tx.Rollback();
+                    throw failure;
+                }
+                finally {
+                    tx.open = false;
+                    openTransaction = null;
+                }
+                if (tx.changed) {
+                    this.loadouts = Freeze(tx.working);
+                    event = LoadoutChangeEvent.Batch(this.loadouts);
+                }
+            }
+            if (event != null) {
+                Publish(event);
+            }
+            return true;
+        }
+    }
+
+    private void CheckNotFailed() {
+        if (loadFailure != null) {
+            throw new IllegalStateException("The loadouts could not be loaded, so they can't be changed.", loadFailure);
+        }
+    }
+
+    /**
+     * Changes inside a batch must go through its transaction, or the batch's commit would overwrite them.
+     */
+    private void CheckNoBatch() {
+        if (openTransaction != null) {
+            throw new IllegalStateException("Change the collection through the transaction while a batch is running.");
         }
     }
 
+    /**
+     * Changes made inside Batch. They apply to a private copy of the collection, which is published on commit.
+     * The indexes are updated as each change is made (so lookups within the batch see it), and every update
+     * records its inverse so that a failed batch can be undone.
+     */
+    public class Transaction {
+        private final List<ILoadout> working = Copy(loadouts);
+        private final Deque<Runnable> undo = new ArrayDeque<>();
+        private final long startNextId = nextId;
+        private boolean changed = false;
+        private boolean open = true;
+
+        private Transaction() {}
+
+        /**
+         * @return The collection as it stands within the batch.
+         */
+        public List<ILoadout> GetLoadouts() {
+            CheckOpen();
+            return Collections.unmodifiableList(working);
+        }
+
+        /**
+         * @return The loadout's id, or -1 if it is not in the collection as it stands within the batch.
+         */
+        public long GetId(ILoadout loadout) {
+            CheckOpen();
+            Long id = idByLoadout.get(loadout);
+            return id == null ? -1 : id;
+        }
+
+        /**
+         * Adds a loadout to the end of the collection, unless an identical loadout is in the collection as it
+         * stands within the batch (so one removed earlier in the batch may be added back).
+         * @return True if the loadout was added; false if it was a duplicate.
+         */
+        public boolean Add(ILoadout loadout) {
+            CheckOpen();
+            if (IsDuplicate(loadout)) {
+                return false;
+            }
+            working.add(loadout);
+            long id = Register(loadout);
+            undo.push(() -> Unregister(id, loadout));
+            changed = true;
+            return true;
+        }
+
+        public boolean Remove(ILoadout loadout) {
+            return RemoveById(GetId(loadout));
+        }
+
+        /**
+         * @return True if a loadout was removed.
+         */
+        public boolean RemoveById(long id) {
+            CheckOpen();
+            ILoadout loadout = byId.get(id);
+            if (loadout == null) {
+                return false;
+            }
+            working.remove(IndexIn(working, loadout));
+            Unregister(id, loadout);
+            undo.push(() -> Register(id, loadout));
+            changed = true;
+            return true;
+        }
+
+        /**
+         * Moves a loadout to a new position, shifting the loadouts in between.
+         */
+        public void Move(ILoadout loadout, int newIndex) {
+            CheckOpen();
+            int index = IndexIn(working, loadout);
+            if (index < 0 || newIndex < 0 || newIndex >= working.size()) {
+                throw new IllegalArgumentException("Cannot move loadout to index " + newIndex);
+            }
+            if (index != newIndex) {
+                working.add(newIndex, working.remove(index));
+                changed = true;
+            }
+        }
+
+        /**
+         * Replaces a loadout with a renamed copy, keeping its position and id.
+         * @return The renamed copy.
+         */
+        public ILoadout RenameById(long id, String name) {
+            CheckOpen();
+            ILoadout loadout = byId.get(id);
+            if (loadout == null) {
+                throw new IllegalArgumentException("Cannot rename a loadout that is not saved: " + id);
+            }
+            ILoadout renamed = loadout.Renamed(name);
+            working.set(IndexIn(working, loadout), renamed);
+            Unregister(id, loadout);
+            Register(id, renamed);
+            undo.push(() -> {
+                Unregister(id, renamed);
+                Register(id, loadout);
+            });
+            changed = true;
+            return renamed;
+        }
+
+        public void Clear() {
+            CheckOpen();
+            for (ILoadout loadout : working) {
+                long id = idByLoadout.get(loadout);
+                Unregister(id, loadout);
+                undo.push(() -> Register(id, loadout));
+            }
+            changed |= !working.isEmpty();
+            working.clear();
+        }
+
+        private void CheckOpen() {
+            if (!open) {
+                throw new IllegalStateException("The batch this transaction belongs to has finished.");
+            }
+        }
+
+        private void Rollback() {
+            while (!undo.isEmpty()) {
+                undo.pop().run();
+            }
+            nextId = startNextId;
+        }
+    }
+
+    /**
+     * Checks whether a loadout with the same name and contents is already saved. Loadouts are looked up by
+     * fingerprint, and a match is confirmed by comparing contents, so a fingerprint collision isn't a duplicate.
+     * Inside a batch, this checks the collection as it stands within the batch.
+     * @param loadout The loadout to look for.
+     * @return True if an identical loadout is already saved.
+     */
+    public synchronized boolean IsDuplicate(ILoadout loadout) {
+        List<ILoadout> matches = byFingerprint.get(loadout.Fingerprint());
+        if (matches == null) {
+            return false;
+        }
+        for (ILoadout match : matches) {
+            if (match.equals(loadout)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ItemIndex ItemIndex() {
+        // Until the library has loaded, the collection is empty.
+        return itemIndex == null ? new ItemIndex() : itemIndex;
+    }
+
+    /**
+     * @return Every use of the item across the saved loadouts, with the slot and quantity of each.
+     */
+    public synchronized List<ItemIndex.Posting> GetItemUsage(int itemID) {
+        return ItemIndex().GetPostings(itemID);
+    }
+
+    /**
+     * @return The id of every item used by at least one saved loadout.
+     */
+    public synchronized Set<Integer> GetUsedItemIDs() {
+        return ItemIndex().GetItemIDs();
+    }
+
+    /**
+     * @return The saved loadouts using at least one of the given items, in collection order.
+     */
+    public synchronized List<ILoadout> FindWithAnyOf(int... itemIDs) {
+        return InOrder(ItemIndex().AnyOf(itemIDs));
+    }
+
+    /**
+     * @return The saved loadouts using every one of the given items, in collection order.
+     */
+    public synchronized List<ILoadout> FindWithAllOf(int... itemIDs) {
+        List<int[]> terms = new ArrayList<>(itemIDs.length);
+        for (int itemID : itemIDs) {
+            terms.add(new int[] {itemID});
+        }
+        return InOrder(ItemIndex().AllOf(terms));
+    }
+
+    /**
+     * Finds loadouts by item, where each term is a group of interchangeable item ids
+     * (for example, every item sharing a name).
+     * @param terms The item groups to look for.
+     * @param matchAll If true, a loadout must use an item from every group; otherwise from any group.
+     * @return The matching saved loadouts, in collection order.
+     */
+    public synchronized List<ILoadout> FindByItems(List<int[]> terms, boolean matchAll) {
+        if (matchAll) {
+            return InOrder(ItemIndex().AllOf(terms));
+        }
+        return InOrder(ItemIndex().AnyOf(terms.stream().flatMapToInt(Arrays::stream).toArray()));
+    }
+
+    private List<ILoadout> InOrder(Set<Long> ids) {
+        List<ILoadout> result = new ArrayList<>(ids.size());
+        if (ids.isEmpty()) {
+            return result;
+        }
+        for (ILoadout loadout : this.loadouts) {
+            if (ids.contains(idByLoadout.get(loadout))) {
+                result.add(loadout);
+            }
+        }
+        return result;
+    }
+
     public void RemoveLoadout(ILoadout loadout) {
-        this.loadouts.remove(loadout);
-        if (config.autoSave()) {
-            this.save();
+        RemoveById(GetId(loadout));
+    }
+
+    /**
+     * @param id The id of the loadout to remove.
+     * @return True if a loadout was removed.
+     */
+    public boolean RemoveById(long id) {
+        synchronized (writeLock) {
+            CheckNoBatch();
+            LoadoutChangeEvent event;
+            synchronized (this) {
+                ILoadout loadout = byId.get(id);
+                if (loadout == null) {
+                    return false;
+                }
+                int index = IndexOf(loadout);
+                List<ILoadout> next = Copy(this.loadouts);
+                next.remove(index);
+                this.loadouts = Freeze(next);
+                Unregister(id, loadout);
+                event = LoadoutChangeEvent.Removed(id, index, loadout);
+            }
+            Publish(event);
+            return true;
         }
-        for (ISubscriber<Stream<ILoadout>> subscriber : this.subscribers) {
-            subscriber.Update(GetLoadouts());
+    }
+
+    /**
+     * Moves a loadout to a new position, shifting the loadouts in between.
+     * @param loadout The loadout to move.
+     * @param newIndex The loadout's index after the move.
+     */
+    public void MoveLoadout(ILoadout loadout, int newIndex) {
+        synchronized (writeLock) {
+            CheckNoBatch();
+            LoadoutChangeEvent event;
+            synchronized (this) {
+                int index = IndexOf(loadout);
+                if (index < 0 || newIndex < 0 || newIndex >= this.loadouts.size()) {
+                    throw new IllegalArgumentException("Cannot move loadout to index " + newIndex);
+                }
+                if (index == newIndex) {
+                    return;
+                }
+                List<ILoadout> next = Copy(this.loadouts);
+                next.add(newIndex, next.remove(index));
+                this.loadouts = Freeze(next);
+                event = LoadoutChangeEvent.Moved(idByLoadout.get(loadout), index, newIndex, loadout);
+            }
+            Publish(event);
+        }
+    }
+
+    /**
+     * Replaces a loadout with a renamed copy, keeping its position and id.
+     * @param loadout The loadout to rename.
+     * @param name The new name.
+     * @return The renamed copy, which takes the original's place in the collection.
+     */
+    public ILoadout RenameLoadout(ILoadout loadout, String name) {
+        long id = GetId(loadout);
+        if (id < 0) {
+            throw new IllegalArgumentException("Cannot rename a loadout that is not saved: " + loadout.GetName());
+        }
+        return RenameById(id, name);
+    }
+
+    /**
+     * Replaces a loadout with a renamed copy, keeping its position and id.
+     * @param id The id of the loadout to rename.
+     * @param name The new name.
+     * @return The renamed copy, which takes the original's place in the collection.
+     */
+    public ILoadout RenameById(long id, String name) {
+        synchronized (writeLock) {
+            CheckNoBatch();
+            LoadoutChangeEvent event;
+            ILoadout renamed;
+            synchronized (this) {
+                ILoadout loadout = byId.get(id);
+                if (loadout == null) {
+                    throw new IllegalArgumentException("Cannot rename a loadout that is not saved: " + id);
+                }
+                renamed = loadout.Renamed(name);
+                int index = IndexOf(loadout);
+                List<ILoadout> next = Copy(this.loadouts);
+                next.set(index, renamed);
+                this.loadouts = Freeze(next);
+                Unregister(id, loadout);
+                Register(id, renamed);
+                event = LoadoutChangeEvent.Renamed(id, index, renamed, loadout);
+            }
+            Publish(event);
+            return renamed;
         }
     }
 
     public void ClearLoadouts() {
-        this.loadouts.clear();
-        if (config.autoSave()) {
-            this.save();
+        synchronized (writeLock) {
+            CheckNoBatch();
+            if (loadFailure != null) {
+                return;
+            }
+            if (!loaded) {
+                deferred.add(this::ClearLoadouts);
+                return;
+            }
+            ClearIndexes();
+            Publish(LoadoutChangeEvent.Cleared());
+        }
+    }
+
+    private synchronized void ClearIndexes() {
+        this.loadouts = Collections.emptyList();
+        byId.clear();
+        idByLoadout.clear();
+        idsByName.clear();
+        if (itemIndex != null) {
+            itemIndex.Clear();
+        }
+        byFingerprint.clear();
+    }
+
+    /**
+     * Positions are found by identity, since equal copies of a loadout would be distinct entries.
+     * Unsaved loadouts are rejected by the id index without scanning.
+     */
+    private int IndexOf(ILoadout loadout) {
+        if (!idByLoadout.containsKey(loadout)) {
+            return -1;
+        }
+        return IndexIn(this.loadouts, loadout);
+    }
+
+    private static int IndexIn(List<ILoadout> loadouts, ILoadout loadout) {
+        for (int i = 0; i < loadouts.size(); i++) {
+            if (loadouts.get(i) == loadout) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private long Register(ILoadout loadout) {
+        long id = nextId++;
+        Register(id, loadout);
+        return id;
+    }
+
+    private void Register(long id, ILoadout loadout) {
+        byId.put(id, loadout);
+        idByLoadout.put(loadout, id);
+        idsByName.computeIfAbsent(loadout.GetName(), name -> new LinkedHashSet<>()).add(id);
+        byFingerprint.computeIfAbsent(loadout.Fingerprint(), fingerprint -> new ArrayList<>(1)).add(loadout);
+        if (itemIndex != null) {
+            itemIndex.Add(id, loadout);
+        }
+    }
+
+    private void Unregister(long id, ILoadout loadout) {
+        byId.remove(id);
+        idByLoadout.remove(loadout);
+        Set<Long> named = idsByName.get(loadout.GetName());
+        if (named != null) {
+            named.remove(id);
+            if (named.isEmpty()) {
+                idsByName.remove(loadout.GetName());
+            }
+        }
+        List<ILoadout> matches = byFingerprint.get(loadout.Fingerprint());
+        if (matches != null) {
+            matches.removeIf(match -> match == loadout);
+            if (matches.isEmpty()) {
+                byFingerprint.remove(loadout.Fingerprint());
+            }
+        }
+        if (itemIndex != null) {
+            itemIndex.Remove(id, loadout);
+        }
+    }
+
+    /**
+     * Autosaves, then tells change subscribers what changed and snapshot subscribers the new collection.
+     */
+    private void Publish(LoadoutChangeEvent event) {
+        autoSave();
+        Notify(event);
+    }
+
+    private void Notify(LoadoutChangeEvent event) {
+        for (ISubscriber<LoadoutChangeEvent> subscriber : this.changeSubscribers) {
+            subscriber.Update(event);
         }
         for (ISubscriber<Stream<ILoadout>> subscriber : this.subscribers) {
             subscriber.Update(GetLoadouts());
@@ -90,11 +830,37 @@ public class LoadoutManager {
     }
 
     public void Subscribe(ISubscriber<Stream<ILoadout>> subscriber) {
-        subscribers.add(subscriber);
-        subscriber.Update(GetLoadouts());
+        synchronized (writeLock) {
+            subscribers.add(subscriber);
+            subscriber.Update(GetLoadouts());
+        }
     }
 
     public void UnSubscribe(ISubscriber<Stream<ILoadout>> subscriber) {
         subscribers.remove(subscriber);
     }
+
+    /**
+     * Change subscribers are told about each individual change, rather than handed the whole collection.
+     * Unlike Subscribe, nothing is sent on subscription.
+     * @return The version of the collection that the first event sent to the subscriber will apply to.
+     */
+    public List<ILoadout> SubscribeChanges(ISubscriber<LoadoutChangeEvent> subscriber) {
+        synchronized (writeLock) {
+            changeSubscribers.add(subscriber);
+            return loadouts;
+        }
+    }
+
+    public void UnSubscribeChanges(ISubscriber<LoadoutChangeEvent> subscriber) {
+        changeSubscribers.remove(subscriber);
+    }
+
+    public void SubscribeSaveStatus(ISubscriber<SaveScheduler.Status> subscriber) {
+        saveScheduler.Subscribe(subscriber);
+    }
+
+    public void UnSubscribeSaveStatus(ISubscriber<SaveScheduler.Status> subscriber) {
+        saveScheduler.UnSubscribe(subscriber);
+    }
 }
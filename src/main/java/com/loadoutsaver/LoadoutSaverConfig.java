@@ -18,6 +18,34 @@ public interface LoadoutSaverConfig extends Config
 		return true;
 	}
 
+	enum Storage
+	{
+		RUNELITE_CONFIG,
+		LOCAL_FILE
+	}
+
+	@ConfigItem(
+		keyName = "storage",
+		name = "Storage",
+		description = "Where loadouts are saved. A local file is faster for very large collections."
+			+ " Takes effect when the plugin restarts; loadouts are copied into the file the first time it is used."
+	)
+	default Storage storage()
+	{
+		return Storage.RUNELITE_CONFIG;
+	}
+
+	@ConfigItem(
+		keyName = "showMetrics",
+		name = "Show debug metrics",
+		description = "Shows timings and counters for loading, saving and drawing loadouts in the panel."
+	)
+	default boolean showMetrics()
+	{
+		return false;
+	}
+
+	// Legacy single-key storage, kept so that ConfigLoadoutStore can migrate it.
 	@ConfigItem(
 			keyName = LoadoutSaverPlugin.CONFIG_SAVED_LOADOUT_KEY,
 			name = "Saved Loadouts",
@@ -1,20 +1,32 @@
 package com.loadoutsaver;
 
 import com.google.inject.Provides;
+import com.loadoutsaver.implementations.LiveGear;
+import com.loadoutsaver.implementations.LoadoutDiff;
+import com.loadoutsaver.interfaces.ILoadoutStore;
+import com.loadoutsaver.ui.LoadoutDiffOverlay;
 import com.loadoutsaver.ui.LoadoutSaverPanel;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
+import net.runelite.client.events.ConfigChanged;
+import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.menus.MenuManager;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.ui.ClientToolbar;
 import net.runelite.client.ui.NavigationButton;
+import net.runelite.client.ui.overlay.OverlayManager;
+import net.runelite.client.util.ImageUtil;
 
-import javax.imageio.ImageIO;
 import javax.inject.Inject;
+import javax.swing.SwingUtilities;
 import java.awt.image.BufferedImage;
-import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
 
 @Slf4j
 @PluginDescriptor(
@@ -24,6 +36,8 @@ public class LoadoutSaverPlugin extends Plugin
 {
 	public static final String CONFIG_GROUP_NAME = "LoadoutSaver";
 	public static final String CONFIG_SAVED_LOADOUT_KEY = "savedloadouts";
+	public static final String CONFIG_LOADOUT_INDEX_KEY = "loadoutindex";
+	public static final String CONFIG_LOADOUT_KEY_PREFIX = "loadout_";
 
 	@Inject
 	private Client client;
@@ -45,25 +59,60 @@ public class LoadoutSaverPlugin extends Plugin
 	@Inject
 	private LoadoutSaverPanel loadoutSaverPanel;
 
+	@Inject
+	private ScheduledExecutorService executor;
+
+	@Inject
+	private ClientThread clientThread;
+
+	@Inject
+	private LiveGear liveGear;
+
+	@Inject
+	private LoadoutDiff loadoutDiff;
+
+	@Inject
+	private OverlayManager overlayManager;
+
+	@Inject
+	private LoadoutDiffOverlay loadoutDiffOverlay;
+
 	private NavigationButton runeliteButton;
 
 	@Override
 	protected void startUp() throws Exception
 	{
 		// Create the button on the right side of the Runelite interface that loads the loadout saver panel.
-		BufferedImage icon;
-		synchronized (ImageIO.class) {
-			icon = ImageIO.read(Objects.requireNonNull(getClass().getResourceAsStream("icon.png")));
-		}
+		BufferedImage icon = ImageUtil.loadImageResource(getClass(), "icon.png");
 		runeliteButton = NavigationButton.builder().tooltip("Loadout Manager").panel(loadoutSaverPanel).icon(icon).build();
 		clientToolbar.addNavigation(this.runeliteButton);
+		overlayManager.add(loadoutDiffOverlay);
 
-		// Load from save file.
+		// Load from save file, in the background so that client startup doesn't wait on the size of the library.
+		// Until the load completes, the panel shows a loading state and queues any loadouts added meanwhile.
 		System.out.println("Load from save file.");
-		loadoutManager = new LoadoutManager(config, configManager);
-		System.out.println("Load complete; loaded " + loadoutManager.size() + " loadouts.");
-
-		loadoutSaverPanel.setManager(loadoutManager);
+		ILoadoutStore store = new ConfigLoadoutStore(configManager);
+		if (config.storage() == LoadoutSaverConfig.Storage.LOCAL_FILE)
+		{
+			store = new FileLoadoutStore(FileLoadoutStore.DEFAULT_PATH, store);
+		}
+		LoadoutManager manager = new LoadoutManager(config, store, executor);
+		loadoutManager = manager;
+		manager.WhenLoaded().thenRun(
+				() -> System.out.println("Load complete; loaded " + manager.size() + " loadouts.")
+		);
+
+		SwingUtilities.invokeLater(() -> loadoutSaverPanel.setManager(manager));
+
+		// Container events only arrive on changes, so read the current gear once in case we're already logged in.
+		clientThread.invokeLater(() ->
+		{
+			if (client.getGameState() == GameState.LOGGED_IN)
+			{
+				liveGear.Seed(client);
+				loadoutDiff.CompareAll();
+			}
+		});
 	}
 
 	@Override
@@ -71,12 +120,51 @@ public class LoadoutSaverPlugin extends Plugin
 	{
 		// Save to save file.
 		System.out.println("Saving " + loadoutManager.size() + " loadouts.");
-		loadoutManager.save(configManager);
+		loadoutManager.flush();
 		System.out.println("Successfully saved to configuration.");
+		log.debug("Loadout saver metrics:{}{}", System.lineSeparator(), Metrics.Dump());
 
 		// Unassociate the plugin button from the runelite interface.
 		clientToolbar.removeNavigation(this.runeliteButton);
 		menuManager.removePlayerMenuItem("Loadout Manager");
+		overlayManager.remove(loadoutDiffOverlay);
+		clientThread.invokeLater(() ->
+		{
+			liveGear.Clear();
+			loadoutDiff.Select(null);
+		});
+	}
+
+	@Subscribe
+	public void onItemContainerChanged(ItemContainerChanged event)
+	{
+		// Only the slots that changed are compared with the selected loadout again.
+		int changed = liveGear.Update(event.getContainerId(), event.getItemContainer());
+		if (changed != 0)
+		{
+			loadoutDiff.Update(event.getContainerId(), changed);
+		}
+	}
+
+	@Subscribe
+	public void onGameStateChanged(GameStateChanged event)
+	{
+		if (event.getGameState() == GameState.LOGIN_SCREEN)
+		{
+			liveGear.Clear();
+			loadoutDiff.CompareAll();
+		}
+	}
+
+	@Subscribe
+	public void onConfigChanged(ConfigChanged event)
+	{
+		// The panel outlives plugin restarts, so the metrics section follows the option rather than being rebuilt.
+		if (CONFIG_GROUP_NAME.equals(event.getGroup()) && "showMetrics".equals(event.getKey()))
+		{
+			boolean show = config.showMetrics();
+			SwingUtilities.invokeLater(() -> loadoutSaverPanel.SetMetricsVisible(show));
+		}
 	}
 
 	@Provides
@@ -0,0 +1,147 @@
+package com.loadoutsaver;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide latency histograms and counters for the plugin's hot paths.
+ * Recording is lock-free and allocation-free once a metric exists, so it is safe on the EDT and client thread.
+ * Metrics are created on first use and live for the rest of the session.
+ */
+public final class Metrics {
+
+    // Timer names.
+    public static final String PARSE = "parse";
+    // Serializing the whole library at once (export), and a single loadout record (incremental saves).
+    public static final String SERIALIZE_FULL = "serialize.full";
+    public static final String SERIALIZE_RECORD = "serialize.record";
+    public static final String STORE_SAVE = "store.save";
+    public static final String CONFIG_WRITE = "config.write";
+    public static final String PANEL_UPDATE = "panel.update";
+    public static final String PANEL_CHANGE = "panel.change";
+    public static final String PANEL_ROWS = "panel.rows";
+    public static final String ICON_RESOLVE = "icon.resolve";
+    public static final String CLIENT_THREAD_HOP = "clientthread.hop";
+
+    // Counter names.
+    public static final String PARSE_FAILURES = "parse.failures";
+    public static final String SAVE_FAILURES = "save.failures";
+    public static final String CONFIG_WRITES = "config.writes";
+    public static final String FILE_BYTES_APPENDED = "file.bytesappended";
+    public static final String ICON_CACHE_HITS = "icon.cachehits";
+    public static final String ICON_FAILURES = "icon.failures";
+
+    /**
+     * Latencies in power-of-two nanosecond buckets. Percentiles are reported as their bucket's upper bound,
+     * so they are accurate to within a factor of two, which is plenty for telling a laggy path from a quick one.
+     */
+    public static final class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        private Histogram() {}
+
+        public void Record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets.incrementAndGet(Math.min(Long.SIZE - 1, Long.SIZE - Long.numberOfLeadingZeros(value)));
+            count.increment();
+            total.add(value);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        /**
+         * Records the time since the given System.nanoTime() reading.
+         */
+        public void Since(long startNanos) {
+            Record(System.nanoTime() - startNanos);
+        }
+
+        public long Count() {
+            return count.sum();
+        }
+
+        public long MeanNanos() {
+            long n = count.sum();
+            return n == 0 ? 0 : total.sum() / n;
+        }
+
+        public long MaxNanos() {
+            return max.get();
+        }
+
+        /**
+         * @param quantile Between 0 and 1.
+         * @return An upper bound on the given quantile of the recorded latencies.
+         */
+        public long PercentileNanos(double quantile) {
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * n);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(i == 0 ? 0 : 1L << i, max.get());
+                }
+            }
+            return max.get();
+        }
+    }
+
+    private static final Map<String, Histogram> timers = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private Metrics() {}
+
+    public static Histogram Timer(String name) {
+        return timers.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    public static void Count(String name) {
+        Count(name, 1);
+    }
+
+    public static void Count(String name, long amount) {
+        counters.computeIfAbsent(name, n -> new LongAdder()).add(amount);
+    }
+
+    public static long GetCount(String name) {
+        LongAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * @return One line per metric, sorted by name. Times are in milliseconds.
+     */
+    public static String Dump() {
+        StringBuilder result = new StringBuilder();
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(timers).entrySet()) {
+            Histogram timer = entry.getValue();
+            result.append(String.format(
+                    "%s: n=%d mean=%.3f p50=%.3f p99=%.3f max=%.3f%n",
+                    entry.getKey(),
+                    timer.Count(),
+                    Millis(timer.MeanNanos()),
+                    Millis(timer.PercentileNanos(0.5)),
+                    Millis(timer.PercentileNanos(0.99)),
+                    Millis(timer.MaxNanos())
+            ));
+        }
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+            result.append(entry.getKey()).append(": ").append(entry.getValue().sum()).append(System.lineSeparator());
+        }
+        return result.length() == 0 ? "No metrics recorded yet." : result.toString();
+    }
+
+    private static double Millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,104 @@
+package com.loadoutsaver;
+
+import com.loadoutsaver.interfaces.ILoadout;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The outcome of parsing a batch of loadout records: the loadouts that parsed, in the records' order,
+ * and a description of each record that didn't.
+ */
+public class ParseResult {
+
+    /**
+     * A record that could not be parsed.
+     */
+    public static class Failure {
+        private final int index;
+        private final String record;
+        private final String reason;
+
+        Failure(int index, String record, String reason) {
+            this.index = index;
+            this.record = record;
+            this.reason = reason;
+        }
+
+        /**
+         * @return The position of the record in the parsed batch.
+         */
+        public int GetIndex() {
+            return index;
+        }
+
+        public String GetRecord() {
+            return record;
+        }
+
+        public String GetReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Record " + index + " (" + reason + "): " + record;
+        }
+    }
+
+    // One entry per input record; null where the record failed.
+    private final ILoadout[] byRecord;
+    private final List<Failure> failures;
+
+    ParseResult(ILoadout[] byRecord, List<Failure> failures) {
+        this.byRecord = byRecord;
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * @return The loadout parsed from the record at the given position in the batch, or null if it failed.
+     */
+    public ILoadout Get(int index) {
+        return byRecord[index];
+    }
+
+    /**
+     * @return Every loadout that parsed, in the records' order.
+     */
+    public List<ILoadout> GetLoadouts() {
+        List<ILoadout> result = new ArrayList<>(byRecord.length - failures.size());
+        for (ILoadout loadout : byRecord) {
+            if (loadout != null) {
+                result.add(loadout);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The records that failed, in order.
+     */
+    public List<Failure> GetFailures() {
+        return failures;
+    }
+
+    /**
+     * @return The number of records in the batch (for pasted share codes, the number of lines).
+     */
+    public int Size() {
+        return byRecord.length;
+    }
+
+    /**
+     * Prints each failure, and a summary if there were any.
+     */
+    public void ReportFailures() {
+        if (failures.isEmpty()) {
+            return;
+        }
+        failures.stream().map(Objects::toString).forEach(System.err::println);
+        System.err.println("WARNING: failed to parse " + failures.size() + " out of " + byRecord.length + " loadouts.");
+    }
+}
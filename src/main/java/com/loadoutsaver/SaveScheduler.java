@@ -0,0 +1,211 @@
+package com.loadoutsaver;
+
+import com.loadoutsaver.interfaces.ILoadout;
+import com.loadoutsaver.interfaces.ILoadoutStore;
+import com.loadoutsaver.interfaces.ISubscriber;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Writes loadouts to the store on a background thread, so that saving never blocks the UI.
+ * Save requests that arrive close together are coalesced into a single write.
+ */
+public class SaveScheduler {
+
+    /**
+     * How long a requested save waits for further changes before writing.
+     */
+    private static final long COALESCE_DELAY_MILLIS = 1000;
+
+    /**
+     * An immutable view of the scheduler's state.
+     */
+    public static class Status {
+        private final boolean pending;
+        private final boolean inFlight;
+        private final long lastSavedMillis;
+
+        private Status(boolean pending, boolean inFlight, long lastSavedMillis) {
+            this.pending = pending;
+            this.inFlight = inFlight;
+            this.lastSavedMillis = lastSavedMillis;
+        }
+
+        /**
+         * @return True if a save has been requested but has not started yet.
+         */
+        public boolean IsPending() {
+            return pending;
+        }
+
+        /**
+         * @return True if a save is currently being written.
+         */
+        public boolean IsInFlight() {
+            return inFlight;
+        }
+
+        /**
+         * @return The wall-clock time of the last completed save, or 0 if nothing was saved this session.
+         */
+        public long LastSavedMillis() {
+            return lastSavedMillis;
+        }
+    }
+
+    private final ILoadoutStore store;
+    private final Supplier<List<ILoadout>> snapshot;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            r -> {
+                Thread thread = new Thread(r, "loadout-saver-save");
+                thread.setDaemon(true);
+                return thread;
+            }
+    );
+
+    private final Set<ISubscriber<Status>> subscribers = new CopyOnWriteArraySet<>();
+
+    // Guarded by this.
+    private ScheduledFuture<?> pending = null;
+    private volatile boolean inFlight = false;
+    private volatile long lastSavedMillis = 0;
+
+    /**
+     * @param store The store to write to.
+     * @param snapshot Supplies a consistent copy of the loadouts at the moment a save runs.
+     */
+    public SaveScheduler(ILoadoutStore store, Supplier<List<ILoadout>> snapshot) {
+        this.store = store;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Requests a save. If one is already waiting, this request is folded into it.
+     */
+    public void Request() {
+        synchronized (this) {
+            if (pending != null || executor.isShutdown()) {
+                return;
+            }
+            pending = executor.schedule(this::Run, COALESCE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        Notify();
+    }
+
+    /**
+     * Starts a save immediately, taking the place of any waiting request.
+     * Once the scheduler has been flushed or stopped, nothing is saved and the returned future is already complete.
+     * @return A future that completes once the save has been written.
+     */
+    public Future<?> SaveNow() {
+        Future<?> result;
+        synchronized (this) {
+            if (executor.isShutdown()) {
+                System.err.println("Ignoring a save requested after the save thread stopped.");
+                return CompletableFuture.completedFuture(null);
+            }
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            pending = executor.schedule(this::Run, 0, TimeUnit.MILLISECONDS);
+            result = pending;
+        }
+        Notify();
+        return result;
+    }
+
+    /**
+     * Writes any outstanding changes and waits for the write to finish, then stops the background thread.
+     */
+    public void Flush() {
+        try {
+            SaveNow().get();
+        }
+        catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException ee) {
+            System.err.println("Final save failed: " + ee.getCause());
+        }
+        finally {
+            // Shut down under the lock, so a request can't pass the shutdown check and then fail to schedule.
+            synchronized (this) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Stops the background thread without saving. Any waiting request is dropped.
+     */
+    public void Stop() {
+        synchronized (this) {
+            if (pending != null) {
+                pending.cancel(false);
+                pending = null;
+            }
+            executor.shutdown();
+        }
+    }
+
+    public Status GetStatus() {
+        boolean isPending;
+        synchronized (this) {
+            isPending = pending != null;
+        }
+        return new Status(isPending, inFlight, lastSavedMillis);
+    }
+
+    /**
+     * Subscribers are notified from whichever thread changed the state, which is often the save thread.
+     */
+    public void Subscribe(ISubscriber<Status> subscriber) {
+        subscribers.add(subscriber);
+        subscriber.Update(GetStatus());
+    }
+
+    public void UnSubscribe(ISubscriber<Status> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    private void Run() {
+        synchronized (this) {
+            pending = null;
+        }
+        inFlight = true;
+        Notify();
+        long start = System.nanoTime();
+        try {
+            store.Save(snapshot.get());
+            Metrics.Timer(Metrics.STORE_SAVE).Since(start);
+            lastSavedMillis = System.currentTimeMillis();
+        }
+        catch (RuntimeException re) {
+            // Keep the executor alive for future saves; this one will be retried by the next request.
+            System.err.println("Could not save loadouts: " + re);
+            Metrics.Count(Metrics.SAVE_FAILURES);
+        }
+        finally {
+            inFlight = false;
+            Notify();
+        }
+    }
+
+    private void Notify() {
+        Status status = GetStatus();
+        for (ISubscriber<Status> subscriber : subscribers) {
+            subscriber.Update(status);
+        }
+    }
+}
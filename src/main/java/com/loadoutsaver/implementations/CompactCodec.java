@@ -0,0 +1,163 @@
+package com.loadoutsaver.implementations;
+
+import com.loadoutsaver.interfaces.IEquipment;
+import com.loadoutsaver.interfaces.IInventory;
+import net.runelite.api.EquipmentInventorySlot;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary encoding of loadout contents, used by version 2 of the loadout format.
+ * All numbers are unsigned LEB128 varints. The layout is:
+ * {inventory slot bitmap}{id}{quantity}...{equipment slot bitmap}{id}{quantity}...
+ * where each bitmap has bit i set when slot i holds an item, followed by one id/quantity pair per set bit.
+ * Equipment bitmaps are keyed by runelite's equipment slot index.
+ */
+final class CompactCodec {
+
+    private CompactCodec() {}
+
+    static byte[] Encode(IInventory inventory, IEquipment equipment) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+
+        int inventorySize = inventory.Size();
+        int inventoryMask = 0;
+        for (int i = 0; i < inventorySize; i++) {
+            if (inventory.GetItemID(i) >= 0) {
+                inventoryMask |= 1 << i;
+            }
+        }
+        WriteVarInt(out, inventoryMask);
+        for (int i = 0; i < inventorySize; i++) {
+            if (inventory.GetItemID(i) >= 0) {
+                WriteVarInt(out, inventory.GetItemID(i));
+                WriteVarInt(out, inventory.GetQuantity(i));
+            }
+        }
+
+        int equipmentMask = 0;
+        for (EquipmentInventorySlot slot : EquipmentImpl.SLOTS) {
+            if (equipment.GetItemID(slot) >= 0) {
+                equipmentMask |= 1 << slot.getSlotIdx();
+            }
+        }
+        WriteVarInt(out, equipmentMask);
+        for (EquipmentInventorySlot slot : EquipmentImpl.SLOTS) {
+            if (equipment.GetItemID(slot) >= 0) {
+                WriteVarInt(out, equipment.GetItemID(slot));
+                WriteVarInt(out, equipment.GetQuantity(slot));
+            }
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes the inventory portion of an encoded payload, advancing the buffer past it.
+     */
+    static IInventory DecodeInventory(ByteBuffer in) {
+        int[] itemIDs = new int[InventoryImpl.SIZE];
+        int[] quantities = new int[InventoryImpl.SIZE];
+        ReadInventory(in, itemIDs, quantities);
+        return new InventoryImpl(itemIDs, quantities);
+    }
+
+    /**
+     * Decodes the equipment portion of an encoded payload, advancing the buffer past it.
+     */
+    static IEquipment DecodeEquipment(ByteBuffer in) {
+        int[] itemIDs = EquipmentImpl.EmptySlots();
+        int[] quantities = new int[EquipmentImpl.SLOT_COUNT];
+        ReadEquipment(in, itemIDs, quantities);
+        return new EquipmentImpl(itemIDs, quantities);
+    }
+
+    /**
+     * Checks a whole encoded payload, as decoding it would, and computes the fingerprints the decoded inventory
+     * and equipment would have, without building either of them.
+     * @return The inventory fingerprint, then the equipment fingerprint.
+     * @throws IllegalArgumentException If the payload is corrupted.
+     */
+    static long[] ContentFingerprints(ByteBuffer in) {
+        int[] inventoryIDs = new int[InventoryImpl.SIZE];
+        int[] inventoryQuantities = new int[InventoryImpl.SIZE];
+        ReadInventory(in, inventoryIDs, inventoryQuantities);
+        int[] equipmentIDs = EquipmentImpl.EmptySlots();
+        int[] equipmentQuantities = new int[EquipmentImpl.SLOT_COUNT];
+        ReadEquipment(in, equipmentIDs, equipmentQuantities);
+        if (in.hasRemaining()) {
+            throw new IllegalArgumentException("Corrupted loadout: " + in.remaining() + " trailing bytes.");
+        }
+
+        // The same as InventoryImpl::Fingerprint and EquipmentImpl::Fingerprint.
+        return new long[] {
+                Fingerprints.Mix(Fingerprints.Mix(Fingerprints.SEED, inventoryIDs), inventoryQuantities),
+                Fingerprints.Mix(Fingerprints.Mix(Fingerprints.SEED, equipmentIDs), equipmentQuantities)
+        };
+    }
+
+    // Callers pass in zeroed quantities.
+    private static void ReadInventory(ByteBuffer in, int[] itemIDs, int[] quantities) {
+        try {
+            int mask = ReadVarInt(in);
+            if ((mask >>> InventoryImpl.SIZE) != 0) {
+                throw new IllegalArgumentException("Corrupted inventory bitmap: " + Integer.toBinaryString(mask));
+            }
+            for (int i = 0; i < InventoryImpl.SIZE; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    itemIDs[i] = ReadVarInt(in);
+                    quantities[i] = ReadVarInt(in);
+                }
+                else {
+                    itemIDs[i] = -1;
+                }
+            }
+        }
+        catch (BufferUnderflowException bue) {
+            throw new IllegalArgumentException("Corrupted inventory: payload ended early.");
+        }
+    }
+
+    // Slots that aren't in the bitmap are left as they are, so callers pass in empty slots.
+    private static void ReadEquipment(ByteBuffer in, int[] itemIDs, int[] quantities) {
+        try {
+            int mask = ReadVarInt(in);
+            for (EquipmentInventorySlot slot : EquipmentImpl.SLOTS) {
+                int bit = 1 << slot.getSlotIdx();
+                if ((mask & bit) != 0) {
+                    itemIDs[slot.getSlotIdx()] = ReadVarInt(in);
+                    quantities[slot.getSlotIdx()] = ReadVarInt(in);
+                    mask &= ~bit;
+                }
+            }
+            if (mask != 0) {
+                throw new IllegalArgumentException("Corrupted equipment bitmap: unknown slots " + Integer.toBinaryString(mask));
+            }
+        }
+        catch (BufferUnderflowException bue) {
+            throw new IllegalArgumentException("Corrupted equipment: payload ended early.");
+        }
+    }
+
+    static void WriteVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int ReadVarInt(ByteBuffer in) {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Corrupted varint: too many bytes.");
+    }
+}
@@ -0,0 +1,30 @@
+package com.loadoutsaver.implementations;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Interns inventories and equipment sets so that loadouts with identical contents share one instance.
+ * Entries are weak, so contents no longer used by any loadout can still be collected.
+ */
+final class ContentPool {
+
+    private static final Map<Object, WeakReference<Object>> pool = new WeakHashMap<>();
+
+    private ContentPool() {}
+
+    /**
+     * @return The pooled instance equal to the given value, which is the value itself if none was pooled yet.
+     */
+    @SuppressWarnings("unchecked")
+    static synchronized <T> T Intern(T value) {
+        WeakReference<Object> existing = pool.get(value);
+        Object pooled = existing == null ? null : existing.get();
+        if (pooled != null) {
+            return (T) pooled;
+        }
+        pool.put(value, new WeakReference<>(value));
+        return value;
+    }
+}
@@ -9,73 +9,169 @@ import net.runelite.api.ItemContainer;
 
 import java.util.Arrays;
 import java.util.Base64;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+/**
+ * Represents the player's worn equipment in a loadout.
+ * Items are packed into parallel id and quantity arrays indexed by runelite's equipment slot index;
+ * empty slots have id -1.
+ */
 public class EquipmentImpl implements IEquipment {
 
     public static IEquipment Deserializer = new EquipmentImpl();
 
+    /**
+     * Every equipment slot. Kept so that iterating slots doesn't clone the enum's values array each time.
+     */
+    static final EquipmentInventorySlot[] SLOTS = EquipmentInventorySlot.values();
+
+    /**
+     * One more than the largest equipment slot index. Some indices in between are unused.
+     */
+    static final int SLOT_COUNT = Arrays.stream(SLOTS).mapToInt(EquipmentInventorySlot::getSlotIdx).max().orElse(-1) + 1;
+
+    /**
+     * Runelite's equipment inventory slot index to the enum value, or null for unused indices.
+     */
+    private static final EquipmentInventorySlot[] SLOT_BY_INDEX = new EquipmentInventorySlot[SLOT_COUNT];
+
+    static {
+        for (EquipmentInventorySlot slot : SLOTS) {
+            SLOT_BY_INDEX[slot.getSlotIdx()] = slot;
+        }
+    }
+
+    /**
+     * @param index Runelite's equipment inventory slot index.
+     * @return The slot with the given index, or null if no slot uses it.
+     */
+    public static EquipmentInventorySlot SlotAt(int index) {
+        return index >= 0 && index < SLOT_COUNT ? SLOT_BY_INDEX[index] : null;
+    }
+
     private EquipmentImpl() {
 
     }
 
+    EquipmentImpl(int[] itemIDs, int[] quantities) {
+        if (itemIDs.length != SLOT_COUNT || quantities.length != SLOT_COUNT) {
+            throw new IllegalArgumentException("Expected equipment to have " + SLOT_COUNT + " slots.");
+        }
+        this.itemIDs = itemIDs;
+        this.quantities = quantities;
+    }
+
     private EquipmentImpl(Map<EquipmentInventorySlot, IItemStack> equipment) {
-        this.equipment = equipment;
+        this(EmptySlots(), new int[SLOT_COUNT]);
+        for (Map.Entry<EquipmentInventorySlot, IItemStack> entry : equipment.entrySet()) {
+            itemIDs[entry.getKey().getSlotIdx()] = entry.getValue().ItemID();
+            quantities[entry.getKey().getSlotIdx()] = entry.getValue().Quantity();
+        }
     }
 
     public EquipmentImpl(ItemContainer equipment) {
-        this(ParseEquipment(equipment));
+        this(EmptySlots(), new int[SLOT_COUNT]);
+        ParseEquipment(equipment, itemIDs, quantities);
+    }
+
+    static int[] EmptySlots() {
+        int[] itemIDs = new int[SLOT_COUNT];
+        Arrays.fill(itemIDs, -1);
+        return itemIDs;
     }
 
     /**
      * Parses the user's equipment from the equipment item container.
      * @param equipment Runelite's item container containing user equipment.
-     * @return A map from equipment slots to the item stacks in that slot.
      */
-    private static Map<EquipmentInventorySlot, IItemStack> ParseEquipment(ItemContainer equipment) {
-        Map<EquipmentInventorySlot, IItemStack> mapping = new HashMap<>();
-
+    private static void ParseEquipment(ItemContainer equipment, int[] itemIDs, int[] quantities) {
         if (equipment == null) {
-            return mapping;
+            return;
         }
 
-        int equipmentSize = equipment.size();
+        int equipmentSize = Math.min(equipment.size(), SLOT_COUNT);
 
-        // For each equipment object in the item container, build an item stack based on the item properties.
+        // For each equipment object in the item container, record the item in the slot with the same index.
         for (int i = 0; i < equipmentSize; i++) {
             Item item = equipment.getItem(i);
-            EquipmentInventorySlot slot = ID_TO_SLOT.get(i);
-            if (item != null) {
-                IItemStack itemStack = new ItemStackImpl(item.getId(), item.getQuantity());
-                mapping.put(slot, itemStack);
+            if (item != null && SLOT_BY_INDEX[i] != null) {
+                itemIDs[i] = item.getId();
+                quantities[i] = item.getQuantity();
             }
         }
-
-        return mapping;
     }
 
-    /**
-     * Creates a map of Runelite's equipment inventory slot index to the enum value.
-     */
-    private static final Map<Integer, EquipmentInventorySlot> ID_TO_SLOT = Arrays.stream(
-            EquipmentInventorySlot.values()
-    ).collect(
-            Collectors.toMap(EquipmentInventorySlot::getSlotIdx, e -> e)
-    );
+    private int[] itemIDs;
+    private int[] quantities;
 
-    private Map<EquipmentInventorySlot, IItemStack> equipment;
+    // Computed on first use; 0 means not computed yet (a fingerprint that really is 0 is just recomputed).
+    // A single volatile field, so another thread sees either 0 or the whole value, never a stale pair.
+    private volatile long fingerprint = 0;
 
     @Override
     public Map<EquipmentInventorySlot, IItemStack> GetEquipment() {
         if (this == Deserializer) {
             throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
         }
+        Map<EquipmentInventorySlot, IItemStack> equipment = new EnumMap<>(EquipmentInventorySlot.class);
+        for (EquipmentInventorySlot slot : SLOTS) {
+            int itemID = itemIDs[slot.getSlotIdx()];
+            if (itemID >= 0) {
+                equipment.put(slot, new ItemStackImpl(itemID, quantities[slot.getSlotIdx()]));
+            }
+        }
         return equipment;
     }
 
+    @Override
+    public int GetItemID(EquipmentInventorySlot slot) {
+        if (this == Deserializer) {
+            throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
+        }
+        return itemIDs[slot.getSlotIdx()];
+    }
+
+    @Override
+    public int GetQuantity(EquipmentInventorySlot slot) {
+        if (this == Deserializer) {
+            throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
+        }
+        return quantities[slot.getSlotIdx()];
+    }
+
+    @Override
+    public long Fingerprint() {
+        if (this == Deserializer) {
+            throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
+        }
+        long result = fingerprint;
+        if (result == 0) {
+            result = Fingerprints.Mix(Fingerprints.Mix(Fingerprints.SEED, itemIDs), quantities);
+            fingerprint = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof EquipmentImpl)) {
+            return false;
+        }
+        EquipmentImpl equipment = (EquipmentImpl) other;
+        return Arrays.equals(itemIDs, equipment.itemIDs) && Arrays.equals(quantities, equipment.quantities);
+    }
+
+    @Override
+    public int hashCode() {
+        return this == Deserializer ? 0 : Long.hashCode(Fingerprint());
+    }
+
     /**
      * Serialization format: semicolon-delimited key-value pairs. keys are ints, values are b64-encoded item stacks.
      * keys and values are separated by a colon.
@@ -87,7 +183,7 @@ public class EquipmentImpl implements IEquipment {
         if (this == Deserializer) {
             throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
         }
-        return equipment.entrySet().stream().map(
+        return GetEquipment().entrySet().stream().map(
                 entry -> (
                         entry.getKey().getSlotIdx()
                                 + ":"
@@ -106,7 +202,7 @@ public class EquipmentImpl implements IEquipment {
     public IEquipment DeserializeString(String serialized) {
 
         List<String> items = Arrays.stream(serialized.split(";", -1)).filter(s -> !s.isBlank()).collect(Collectors.toList());
-        Map<EquipmentInventorySlot, IItemStack> itemMap = new HashMap<>();
+        Map<EquipmentInventorySlot, IItemStack> itemMap = new EnumMap<>(EquipmentInventorySlot.class);
 
         for (String item : items) {
             String[] kvp = item.split(":", -1);
@@ -114,7 +210,11 @@ public class EquipmentImpl implements IEquipment {
                 System.err.println("Equipment was not a key-value pair: " + item);
                 throw new IllegalArgumentException("Corrupted equipment: " + serialized);
             }
-            EquipmentInventorySlot key = ID_TO_SLOT.get(Integer.parseInt(kvp[0]));
+            EquipmentInventorySlot key = SlotAt(Integer.parseInt(kvp[0]));
+            if (key == null) {
+                System.err.println("Unknown equipment slot: " + kvp[0]);
+                throw new IllegalArgumentException("Corrupted equipment: " + serialized);
+            }
             String value = new String(Base64.getDecoder().decode(kvp[1]));
             IItemStack deserializedValue = ItemStackImpl.Deserializer.DeserializeString(value);
             itemMap.put(key, deserializedValue);
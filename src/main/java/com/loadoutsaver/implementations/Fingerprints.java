@@ -0,0 +1,40 @@
+package com.loadoutsaver.implementations;
+
+/**
+ * Stable 64-bit content fingerprints (FNV-1a over 32-bit words).
+ * Fingerprints are identical across sessions and machines, so they can be used as persistent cache keys.
+ */
+final class Fingerprints {
+
+    static final long SEED = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private Fingerprints() {}
+
+    static long Mix(long hash, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash ^= (value >>> shift) & 0xFF;
+            hash *= PRIME;
+        }
+        return hash;
+    }
+
+    static long Mix(long hash, long value) {
+        return Mix(Mix(hash, (int) value), (int) (value >>> 32));
+    }
+
+    static long Mix(long hash, String value) {
+        hash = Mix(hash, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            hash = Mix(hash, value.charAt(i));
+        }
+        return hash;
+    }
+
+    static long Mix(long hash, int[] values) {
+        for (int value : values) {
+            hash = Mix(hash, value);
+        }
+        return hash;
+    }
+}
@@ -11,65 +11,130 @@ import java.util.stream.Collectors;
 
 /**
  * Represents the player's inventory in a loadout.
+ * Items are packed into parallel id and quantity arrays; empty slots have id -1.
  */
 public class InventoryImpl implements IInventory {
     public static IInventory Deserializer = new InventoryImpl();
 
+    static final int SIZE = 28;
+
     private InventoryImpl() {
 
     }
 
-    private InventoryImpl(IItemStack[] items) {
-        if (items.length != 28) {
+    InventoryImpl(int[] itemIDs, int[] quantities) {
+        if (itemIDs.length != SIZE || quantities.length != SIZE) {
+            throw new IllegalArgumentException("Expected inventories to have 28 slots.");
+        }
+        this.itemIDs = itemIDs;
+        this.quantities = quantities;
+    }
+
+    InventoryImpl(IItemStack[] items) {
+        this(new int[SIZE], new int[SIZE]);
+        if (items.length != SIZE) {
             throw new IllegalArgumentException("Expected inventories to have 28 slots.");
         }
-        this.items = items;
+        for (int i = 0; i < SIZE; i++) {
+            itemIDs[i] = items[i].ItemID();
+            quantities[i] = items[i].Quantity();
+        }
     }
 
     public InventoryImpl(ItemContainer inventory) {
-        this(ParseInventory(inventory));
+        this(new int[SIZE], new int[SIZE]);
+        ParseInventory(inventory, itemIDs, quantities);
     }
 
-    private static IItemStack[] ParseInventory(ItemContainer inventory) {
-        // I expected this to return 28, but it sometimes returns smaller values (27, or lower)
+    private static void ParseInventory(ItemContainer inventory, int[] itemIDs, int[] quantities) {
+        // I expected inventory.size() to return 28, but it sometimes returns smaller values (27, or lower)
         // when the last k slots of the inventory are empty.
         // Rendering fails if that's the case, and this should always be 28 in size anyways.
-        int inventorySize = 28; // inventory.size();
-        IItemStack[] parsed = new IItemStack[inventorySize];
+        Arrays.fill(itemIDs, -1);
 
         if (inventory == null) {
-            for (int i = 0; i < inventorySize; i++) {
-                parsed[i] = new ItemStackImpl(-1, 0);
-            }
-            return parsed;
+            return;
         }
 
-        for (int i = 0; i < inventorySize; i++) {
+        for (int i = 0; i < SIZE; i++) {
             Item item = inventory.getItem(i);
-            if (item == null) {
-                parsed[i] = new ItemStackImpl(-1, 0);
-            }
-            else {
-                parsed[i] = new ItemStackImpl(item.getId(), item.getQuantity());
+            if (item != null) {
+                itemIDs[i] = item.getId();
+                quantities[i] = item.getQuantity();
             }
         }
-
-        return parsed;
     }
 
-    private IItemStack[] items;
+    private int[] itemIDs;
+    private int[] quantities;
+
+    // Computed on first use; 0 means not computed yet (a fingerprint that really is 0 is just recomputed).
+    // A single volatile field, so another thread sees either 0 or the whole value, never a stale pair.
+    private volatile long fingerprint = 0;
 
     @Override
     public IItemStack[] GetItems() {
         if (this == Deserializer) {
             throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
         }
-        if (items.length != 28) {
-            System.err.println("Inventory had " + items.length + "items");
+        IItemStack[] items = new IItemStack[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            items[i] = itemIDs[i] < 0 ? ItemStackImpl.EMPTY : new ItemStackImpl(itemIDs[i], quantities[i]);
         }
         return items;
     }
 
+    @Override
+    public int Size() {
+        return SIZE;
+    }
+
+    @Override
+    public int GetItemID(int slot) {
+        if (this == Deserializer) {
+            throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
+        }
+        return itemIDs[slot];
+    }
+
+    @Override
+    public int GetQuantity(int slot) {
+        if (this == Deserializer) {
+            throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
+        }
+        return quantities[slot];
+    }
+
+    @Override
+    public long Fingerprint() {
+        if (this == Deserializer) {
+            throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
+        }
+        long result = fingerprint;
+        if (result == 0) {
+            result = Fingerprints.Mix(Fingerprints.Mix(Fingerprints.SEED, itemIDs), quantities);
+            fingerprint = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof InventoryImpl)) {
+            return false;
+        }
+        InventoryImpl inventory = (InventoryImpl) other;
+        return Arrays.equals(itemIDs, inventory.itemIDs) && Arrays.equals(quantities, inventory.quantities);
+    }
+
+    @Override
+    public int hashCode() {
+        return this == Deserializer ? 0 : Long.hashCode(Fingerprint());
+    }
+
     /**
      * Serialization format: colon-delimited item stacks, b64 encoded.
      * @return The serialized string following the above format.
@@ -79,7 +144,7 @@ public class InventoryImpl implements IInventory {
         if (this == Deserializer) {
             throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
         }
-        return Arrays.stream(items).map(
+        return Arrays.stream(GetItems()).map(
                 IItemStack::SerializeString
         ).map(
                 String::getBytes
@@ -9,6 +9,11 @@ import com.loadoutsaver.interfaces.IItemStack;
 public class ItemStackImpl implements IItemStack {
     public static IItemStack Deserializer = new ItemStackImpl();
 
+    /**
+     * Shared stack for empty slots.
+     */
+    public static final IItemStack EMPTY = new ItemStackImpl(-1, 0);
+
     private ItemStackImpl() {
 
     }
@@ -37,6 +42,23 @@ public class ItemStackImpl implements IItemStack {
         return quantity;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ItemStackImpl)) {
+            return false;
+        }
+        ItemStackImpl stack = (ItemStackImpl) other;
+        return itemID == stack.itemID && quantity == stack.quantity;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * itemID + quantity;
+    }
+
     @Override
     public String SerializeString() {
         if (this == Deserializer) {
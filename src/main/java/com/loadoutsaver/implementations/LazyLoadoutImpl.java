@@ -0,0 +1,230 @@
+package com.loadoutsaver.implementations;
+
+import com.loadoutsaver.interfaces.IEquipment;
+import com.loadoutsaver.interfaces.IInventory;
+import com.loadoutsaver.interfaces.ILoadout;
+import net.runelite.api.ItemContainer;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * A loadout backed by its serialized record, which only parses the name up front.
+ * The inventory and equipment are decoded on first access and cached.
+ * Serializing an untouched lazy loadout returns the original record without decoding it.
+ */
+public class LazyLoadoutImpl implements ILoadout {
+
+    public static ILoadout Deserializer = new LazyLoadoutImpl();
+
+    private LazyLoadoutImpl() {
+        this.raw = null;
+        this.name = null;
+    }
+
+    private LazyLoadoutImpl(String raw, String name) {
+        this.raw = raw;
+        this.name = name;
+    }
+
+    private final String raw;
+    private final String name;
+
+    // Populated on first access to the inventory or equipment.
+    private volatile ILoadout decoded;
+
+    // See LoadoutImpl; 0 means not computed yet.
+    private volatile long fingerprint = 0;
+
+    @Override
+    public String GetName() {
+        if (this == Deserializer) {
+            throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
+        }
+        return name;
+    }
+
+    @Override
+    public IInventory GetInventory() {
+        return Decoded().GetInventory();
+    }
+
+    @Override
+    public IEquipment GetEquipment() {
+        return Decoded().GetEquipment();
+    }
+
+    /**
+     * Renaming only rewrites the record's name, so the contents stay undecoded.
+     */
+    @Override
+    public ILoadout Renamed(String name) {
+        if (this == Deserializer) {
+            throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
+        }
+        LazyLoadoutImpl renamed = new LazyLoadoutImpl(name + raw.substring(this.name.length()), name);
+        renamed.decoded = this.decoded == null ? null : this.decoded.Renamed(name);
+        return renamed;
+    }
+
+    /**
+     * The fingerprint is computed from the record without decoding it (see CheckedFingerprint), so fingerprinting
+     * a whole library for duplicate checks neither decodes nor interns any of it.
+     * A record with corrupted contents has the fingerprint of the empty loadout it is shown as.
+     */
+    @Override
+    public long Fingerprint() {
+        if (this == Deserializer) {
+            throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
+        }
+        long result = fingerprint;
+        if (result != 0) {
+            return result;
+        }
+        ILoadout contents = decoded;
+        if (contents != null) {
+            return contents.Fingerprint();
+        }
+        try {
+            return CheckedFingerprint();
+        }
+        catch (RuntimeException re) {
+            // Only a checked fingerprint is cached here; the empty loadout caches its own.
+            return Decoded().Fingerprint();
+        }
+    }
+
+    /**
+     * Checks the whole record and caches its fingerprint, without decoding the contents.
+     * Unlike the inventory and equipment, which show a corrupted loadout as empty, this fails on one.
+     * @return The fingerprint.
+     * @throws IllegalArgumentException If the contents are corrupted.
+     */
+    public long CheckedFingerprint() {
+        if (this == Deserializer) {
+            throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
+        }
+        long result = fingerprint;
+        if (result == 0) {
+            long[] contents = ContentFingerprints();
+            result = LoadoutImpl.Fingerprint(name, contents[0], contents[1]);
+            fingerprint = result;
+        }
+        return result;
+    }
+
+    // The same checks as LoadoutImpl::DeserializeString, after the header checked by DeserializeString.
+    private long[] ContentFingerprints() {
+        String[] components = raw.substring(name.length() + 1).split(":", -1);
+        Base64.Decoder decoder = Base64.getDecoder();
+        if (components.length == 2) {
+            return CompactCodec.ContentFingerprints(ByteBuffer.wrap(decoder.decode(components[0])));
+        }
+        // Version 1 is rare and has no compact form, so it is decoded, but the contents aren't interned.
+        IInventory inventory = InventoryImpl.Deserializer.DeserializeString(new String(decoder.decode(components[0])));
+        IEquipment equipment = EquipmentImpl.Deserializer.DeserializeString(new String(decoder.decode(components[1])));
+        return new long[] {inventory.Fingerprint(), equipment.Fingerprint()};
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return LoadoutImpl.ContentEquals(this, other);
+    }
+
+    @Override
+    public int hashCode() {
+        return this == Deserializer ? 0 : Long.hashCode(Fingerprint());
+    }
+
+    /**
+     * @return True if the inventory and equipment have already been decoded.
+     */
+    public boolean IsDecoded() {
+        return decoded != null;
+    }
+
+    /**
+     * Reads the contents without keeping them decoded, for passes over a whole library (such as building the
+     * item index) that would otherwise leave every loadout decoded.
+     * @return A loadout with the same name and contents.
+     */
+    public ILoadout Contents() {
+        if (this == Deserializer) {
+            throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
+        }
+        ILoadout contents = decoded;
+        return contents == null ? Decode() : contents;
+    }
+
+    private ILoadout Decoded() {
+        if (this == Deserializer) {
+            throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
+        }
+        ILoadout result = decoded;
+        if (result == null) {
+            synchronized (this) {
+                result = decoded;
+                if (result == null) {
+                    result = Decode();
+                    decoded = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private ILoadout Decode() {
+        try {
+            return LoadoutImpl.Deserializer.DeserializeString(raw);
+        }
+        catch (RuntimeException re) {
+            // The header was valid, so keep the loadout (and its raw record, so nothing is lost on save)
+            // but show it as empty rather than failing every render.
+            System.err.println("Could not decode loadout contents: " + name);
+            return new LoadoutImpl(name, new InventoryImpl((ItemContainer) null), new EquipmentImpl((ItemContainer) null));
+        }
+    }
+
+    @Override
+    public String SerializeString() {
+        if (this == Deserializer) {
+            throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
+        }
+        return raw;
+    }
+
+    /**
+     * Validates the record header and extracts the name, without decoding the contents.
+     * See LoadoutImpl::SerializeString for the format.
+     * @return A lazy loadout wrapping the given record.
+     */
+    @Override
+    public ILoadout DeserializeString(String serialized) {
+        String record = serialized.strip();
+        int nameEnd = record.lastIndexOf(';');
+        if (nameEnd < 0) {
+            System.err.println("Corrupted loadout: no name separator.");
+            throw new IllegalArgumentException("Corrupted loadout: " + serialized);
+        }
+
+        int versionStart = record.lastIndexOf(':');
+        if (versionStart < nameEnd) {
+            System.err.println("Corrupted loadout: no version.");
+            throw new IllegalArgumentException("Corrupted loadout: " + serialized);
+        }
+        String version = record.substring(versionStart + 1);
+        int separators = 0;
+        for (int i = nameEnd + 1; i < record.length(); i++) {
+            if (record.charAt(i) == ':') {
+                separators++;
+            }
+        }
+        boolean known = ("2".equals(version) && separators == 1) || ("1".equals(version) && separators == 2);
+        if (!known) {
+            System.err.println("Corrupted loadout: unknown version: " + version);
+            throw new IllegalArgumentException("Unknown loadout version: " + version);
+        }
+
+        return new LazyLoadoutImpl(record, record.substring(0, nameEnd));
+    }
+}
@@ -0,0 +1,171 @@
+package com.loadoutsaver.implementations;
+
+import com.loadoutsaver.interfaces.ILoadout;
+import net.runelite.api.Client;
+import net.runelite.api.EquipmentInventorySlot;
+import net.runelite.api.InventoryID;
+import net.runelite.api.Item;
+import net.runelite.api.ItemContainer;
+
+import javax.inject.Singleton;
+import java.util.Arrays;
+
+/**
+ * The player's current inventory and equipment, kept up to date from item container changes on the client thread.
+ * Slots are held in fixed id and quantity buffers laid out like InventoryImpl and EquipmentImpl, and updates
+ * write into them in place, so keeping the snapshot current allocates nothing.
+ * Capturing a loadout copies the buffers, so it doesn't need the client thread or the client's containers.
+ */
+@Singleton
+public class LiveGear {
+
+    private static final int INVENTORY = InventoryID.INVENTORY.getId();
+    private static final int EQUIPMENT = InventoryID.EQUIPMENT.getId();
+
+    private final int[] inventoryIDs = new int[InventoryImpl.SIZE];
+    private final int[] inventoryQuantities = new int[InventoryImpl.SIZE];
+    private final int[] equipmentIDs = EquipmentImpl.EmptySlots();
+    private final int[] equipmentQuantities = new int[EquipmentImpl.SLOT_COUNT];
+
+    // Whether each container has been seen since login. Until then its buffers are just empty slots.
+    private boolean inventorySeen = false;
+    private boolean equipmentSeen = false;
+
+    // Incremented whenever a slot changes, so readers can tell whether anything happened since they last looked.
+    private volatile long version = 0;
+
+    public LiveGear() {
+        Arrays.fill(inventoryIDs, -1);
+    }
+
+    /**
+     * Records a changed item container. Containers other than the inventory and equipment are ignored.
+     * Should be called on the client thread.
+     * @param containerID The id of the container that changed.
+     * @param container The container, or null if it no longer exists.
+     * @return A bit per slot that changed (by inventory slot, or by equipment slot index). 0 if nothing changed.
+     */
+    public synchronized int Update(int containerID, ItemContainer container) {
+        int changed;
+        if (containerID == INVENTORY) {
+            changed = Copy(container, inventoryIDs, inventoryQuantities, InventoryImpl.SIZE, false);
+            inventorySeen = inventorySeen || container != null;
+        }
+        else if (containerID == EQUIPMENT) {
+            changed = Copy(container, equipmentIDs, equipmentQuantities, EquipmentImpl.SLOT_COUNT, true);
+            equipmentSeen = equipmentSeen || container != null;
+        }
+        else {
+            return 0;
+        }
+        if (changed != 0) {
+            version++;
+        }
+        return changed;
+    }
+
+    /**
+     * Reads both containers directly, for when the plugin starts while the player is already logged in
+     * and no change events have arrived yet. Must be called on the client thread.
+     */
+    public void Seed(Client client) {
+        Update(INVENTORY, client.getItemContainer(InventoryID.INVENTORY));
+        Update(EQUIPMENT, client.getItemContainer(InventoryID.EQUIPMENT));
+    }
+
+    /**
+     * Forgets the snapshot, for example on logout, so the next account's gear isn't mixed with this one's.
+     */
+    public synchronized void Clear() {
+        Arrays.fill(inventoryIDs, -1);
+        Arrays.fill(inventoryQuantities, 0);
+        Arrays.fill(equipmentIDs, -1);
+        Arrays.fill(equipmentQuantities, 0);
+        inventorySeen = false;
+        equipmentSeen = false;
+        version++;
+    }
+
+    /**
+     * @return Whether either container has been seen since login, so a capture reflects the player's gear.
+     */
+    public synchronized boolean IsReady() {
+        return inventorySeen || equipmentSeen;
+    }
+
+    public long GetVersion() {
+        return version;
+    }
+
+    public synchronized int GetInventoryItemID(int slot) {
+        return inventoryIDs[slot];
+    }
+
+    public synchronized int GetInventoryQuantity(int slot) {
+        return inventoryQuantities[slot];
+    }
+
+    public synchronized int GetEquipmentItemID(EquipmentInventorySlot slot) {
+        return equipmentIDs[slot.getSlotIdx()];
+    }
+
+    public synchronized int GetEquipmentQuantity(EquipmentInventorySlot slot) {
+        return equipmentQuantities[slot.getSlotIdx()];
+    }
+
+    /**
+     * Captures the current gear as a loadout. Safe to call from any thread.
+     * @param name The name of the new loadout.
+     * @return A loadout holding a copy of the current inventory and equipment.
+     * @throws IllegalArgumentException If neither container has been seen yet (for example, when not logged in).
+     */
+    public ILoadout Capture(String name) {
+        int[] ids;
+        int[] quantities;
+        int[] equipped;
+        int[] equippedQuantities;
+        synchronized (this) {
+            if (!IsReady()) {
+                // Same cases as reading the client's containers directly: not in game, or nothing has loaded yet.
+                throw new IllegalArgumentException("Client state was unexpected in loadout parser.");
+            }
+            ids = inventoryIDs.clone();
+            quantities = inventoryQuantities.clone();
+            equipped = equipmentIDs.clone();
+            equippedQuantities = equipmentQuantities.clone();
+        }
+        return new LoadoutImpl(
+                name,
+                new InventoryImpl(ids, quantities),
+                new EquipmentImpl(equipped, equippedQuantities)
+        );
+    }
+
+    /**
+     * Copies the container's items into the buffers, the same way InventoryImpl and EquipmentImpl parse containers.
+     * @return A bit per slot whose id or quantity changed.
+     */
+    private static int Copy(ItemContainer container, int[] itemIDs, int[] quantities, int size, boolean equipment) {
+        // The inventory can report fewer than 28 slots when the last ones are empty, so every slot is read there.
+        // Equipment only has items at the indices that are used by a slot.
+        int readable = container == null ? 0 : equipment ? Math.min(container.size(), size) : size;
+        int changed = 0;
+        for (int i = 0; i < size; i++) {
+            int itemID = -1;
+            int quantity = 0;
+            if (i < readable && (!equipment || EquipmentImpl.SlotAt(i) != null)) {
+                Item item = container.getItem(i);
+                if (item != null) {
+                    itemID = item.getId();
+                    quantity = item.getQuantity();
+                }
+            }
+            if (itemIDs[i] != itemID || quantities[i] != quantity) {
+                itemIDs[i] = itemID;
+                quantities[i] = quantity;
+                changed |= 1 << i;
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,260 @@
+package com.loadoutsaver.implementations;
+
+import com.loadoutsaver.interfaces.IEquipment;
+import com.loadoutsaver.interfaces.IInventory;
+import com.loadoutsaver.interfaces.ILoadout;
+import net.runelite.api.EquipmentInventorySlot;
+import net.runelite.api.InventoryID;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Arrays;
+
+/**
+ * Compares the player's current gear (see LiveGear) with a selected loadout, slot by slot.
+ * The selected loadout's contents are copied into fixed buffers, and each slot's result is kept in packed arrays,
+ * so drawing the differences only reads arrays. Only the slots a container change touched are compared again.
+ * Everything here, including selection, happens on the client thread.
+ */
+@Singleton
+public class LoadoutDiff {
+
+    /** The slot matches the loadout, or nothing is being compared. */
+    public static final int MATCH = 0;
+    /** The slot holds a different item than the loadout (or should be empty). */
+    public static final int WRONG = 1;
+    /** The slot holds the right item, but fewer of it than the loadout. */
+    public static final int SHORT = 2;
+    /** The slot is empty, but the loadout has an item there. */
+    public static final int MISSING = 3;
+
+    private static final int INVENTORY = InventoryID.INVENTORY.getId();
+    private static final int EQUIPMENT = InventoryID.EQUIPMENT.getId();
+
+    private static final int ALL_INVENTORY = (1 << InventoryImpl.SIZE) - 1;
+    private static final int ALL_EQUIPMENT = (1 << EquipmentImpl.SLOT_COUNT) - 1;
+
+    private final LiveGear gear;
+
+    // The loadout being compared against, or no name when nothing is.
+    private String selectedName = null;
+    private final int[] targetInventoryIDs = new int[InventoryImpl.SIZE];
+    private final int[] targetInventoryQuantities = new int[InventoryImpl.SIZE];
+    private final int[] targetEquipmentIDs = new int[EquipmentImpl.SLOT_COUNT];
+    private final int[] targetEquipmentQuantities = new int[EquipmentImpl.SLOT_COUNT];
+
+    // Per slot: the item the comparison last saw, its status, its shortfall, and the shortfall as text to draw.
+    private final int[] inventoryIDs = new int[InventoryImpl.SIZE];
+    private final int[] inventoryStatus = new int[InventoryImpl.SIZE];
+    private final int[] inventoryShortfalls = new int[InventoryImpl.SIZE];
+    private final String[] inventoryLabels = new String[InventoryImpl.SIZE];
+    private final int[] equipmentIDs = new int[EquipmentImpl.SLOT_COUNT];
+    private final int[] equipmentStatus = new int[EquipmentImpl.SLOT_COUNT];
+    private final int[] equipmentShortfalls = new int[EquipmentImpl.SLOT_COUNT];
+    private final String[] equipmentLabels = new String[EquipmentImpl.SLOT_COUNT];
+
+    // A bit per slot that differs, and per slot that is MISSING, so the common cases are a single check.
+    private int inventoryDifferences = 0;
+    private int equipmentDifferences = 0;
+    private int missingInventory = 0;
+    private int missingEquipment = 0;
+
+    @Inject
+    public LoadoutDiff(LiveGear gear) {
+        this.gear = gear;
+    }
+
+    /**
+     * Starts comparing the current gear with the given loadout, replacing any previous selection.
+     * @param loadout The loadout to compare with, or null to stop comparing.
+     */
+    public void Select(ILoadout loadout) {
+        if (loadout == null) {
+            selectedName = null;
+            CompareAll();
+            return;
+        }
+        IInventory inventory = loadout.GetInventory();
+        for (int i = 0; i < InventoryImpl.SIZE; i++) {
+            boolean present = i < inventory.Size() && inventory.GetItemID(i) >= 0;
+            targetInventoryIDs[i] = present ? inventory.GetItemID(i) : -1;
+            targetInventoryQuantities[i] = present ? inventory.GetQuantity(i) : 0;
+        }
+        IEquipment equipment = loadout.GetEquipment();
+        Arrays.fill(targetEquipmentIDs, -1);
+        Arrays.fill(targetEquipmentQuantities, 0);
+        for (EquipmentInventorySlot slot : EquipmentImpl.SLOTS) {
+            int itemID = equipment.GetItemID(slot);
+            if (itemID >= 0) {
+                targetEquipmentIDs[slot.getSlotIdx()] = itemID;
+                targetEquipmentQuantities[slot.getSlotIdx()] = equipment.GetQuantity(slot);
+            }
+        }
+        selectedName = loadout.GetName();
+        CompareAll();
+    }
+
+    /**
+     * Compares the given slots again after a container change.
+     * @param containerID The container that changed. Containers other than the inventory and equipment are ignored.
+     * @param changedSlots A bit per slot that changed, as returned by LiveGear.Update.
+     */
+    public void Update(int containerID, int changedSlots) {
+        if (containerID == INVENTORY) {
+            CompareInventory(changedSlots);
+        }
+        else if (containerID == EQUIPMENT) {
+            CompareEquipment(changedSlots);
+        }
+    }
+
+    /**
+     * Compares every slot again, for example after the live gear was cleared.
+     */
+    public void CompareAll() {
+        CompareInventory(ALL_INVENTORY);
+        CompareEquipment(ALL_EQUIPMENT);
+    }
+
+    public boolean IsActive() {
+        return selectedName != null;
+    }
+
+    /**
+     * @return The name of the loadout being compared with, or null.
+     */
+    public String GetSelectedName() {
+        return selectedName;
+    }
+
+    public boolean HasDifferences() {
+        return inventoryDifferences != 0 || equipmentDifferences != 0;
+    }
+
+    /**
+     * @return A bit per inventory slot that is empty but shouldn't be.
+     */
+    public int GetMissingInventorySlots() {
+        return missingInventory;
+    }
+
+    /**
+     * @return A bit per equipment slot, by runelite's equipment inventory slot index, that is empty but shouldn't be.
+     */
+    public int GetMissingEquipmentSlots() {
+        return missingEquipment;
+    }
+
+    /**
+     * @param slot The inventory slot.
+     * @param itemID The item the caller sees in the slot. If the comparison hasn't seen that item there yet, MATCH.
+     * @return The slot's status.
+     */
+    public int GetInventoryStatus(int slot, int itemID) {
+        if (slot < 0 || slot >= InventoryImpl.SIZE || inventoryIDs[slot] != itemID) {
+            return MATCH;
+        }
+        return inventoryStatus[slot];
+    }
+
+    /**
+     * @return The inventory slot's shortfall as text to draw, or null if there is none.
+     */
+    public String GetInventoryLabel(int slot) {
+        return inventoryLabels[slot];
+    }
+
+    /**
+     * Equipment items are drawn without their slot, so they are looked up by item instead.
+     * @param itemID The equipped item.
+     * @return The index of the equipment slot holding the item, or -1 if it isn't equipped or matches the loadout.
+     */
+    public int FindEquipmentDifference(int itemID) {
+        if (equipmentDifferences == 0) {
+            return -1;
+        }
+        for (int i = 0; i < EquipmentImpl.SLOT_COUNT; i++) {
+            if (equipmentIDs[i] == itemID && equipmentStatus[i] != MATCH) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param slotIndex Runelite's equipment inventory slot index.
+     */
+    public int GetEquipmentStatus(int slotIndex) {
+        return equipmentStatus[slotIndex];
+    }
+
+    /**
+     * @param slotIndex Runelite's equipment inventory slot index.
+     * @return The equipment slot's shortfall as text to draw, or null if there is none.
+     */
+    public String GetEquipmentLabel(int slotIndex) {
+        return equipmentLabels[slotIndex];
+    }
+
+    private void CompareInventory(int slots) {
+        for (int i = 0; i < InventoryImpl.SIZE; i++) {
+            if ((slots & (1 << i)) == 0) {
+                continue;
+            }
+            int itemID = gear.GetInventoryItemID(i);
+            int quantity = gear.GetInventoryQuantity(i);
+            int status = Compare(itemID, quantity, targetInventoryIDs[i], targetInventoryQuantities[i]);
+            int shortfall = status == SHORT ? targetInventoryQuantities[i] - quantity : 0;
+            if (shortfall != inventoryShortfalls[i]) {
+                inventoryShortfalls[i] = shortfall;
+                inventoryLabels[i] = Label(shortfall);
+            }
+            inventoryIDs[i] = itemID;
+            inventoryStatus[i] = status;
+            inventoryDifferences = SetBit(inventoryDifferences, i, status != MATCH);
+            missingInventory = SetBit(missingInventory, i, status == MISSING);
+        }
+    }
+
+    private void CompareEquipment(int slots) {
+        for (int i = 0; i < EquipmentImpl.SLOT_COUNT; i++) {
+            EquipmentInventorySlot slot = EquipmentImpl.SlotAt(i);
+            if ((slots & (1 << i)) == 0 || slot == null) {
+                continue;
+            }
+            int itemID = gear.GetEquipmentItemID(slot);
+            int quantity = gear.GetEquipmentQuantity(slot);
+            int status = Compare(itemID, quantity, targetEquipmentIDs[i], targetEquipmentQuantities[i]);
+            int shortfall = status == SHORT ? targetEquipmentQuantities[i] - quantity : 0;
+            if (shortfall != equipmentShortfalls[i]) {
+                equipmentShortfalls[i] = shortfall;
+                equipmentLabels[i] = Label(shortfall);
+            }
+            equipmentIDs[i] = itemID;
+            equipmentStatus[i] = status;
+            equipmentDifferences = SetBit(equipmentDifferences, i, status != MATCH);
+            missingEquipment = SetBit(missingEquipment, i, status == MISSING);
+        }
+    }
+
+    private int Compare(int itemID, int quantity, int targetID, int targetQuantity) {
+        if (selectedName == null || itemID == targetID && quantity >= targetQuantity) {
+            return MATCH;
+        }
+        if (itemID == targetID) {
+            return SHORT;
+        }
+        return itemID < 0 ? MISSING : WRONG;
+    }
+
+    /**
+     * Labels are only built when a shortfall changes, so drawing them never builds strings.
+     */
+    private static String Label(int shortfall) {
+        return shortfall == 0 ? null : "-" + shortfall;
+    }
+
+    private static int SetBit(int bits, int bit, boolean set) {
+        return set ? bits | (1 << bit) : bits & ~(1 << bit);
+    }
+}
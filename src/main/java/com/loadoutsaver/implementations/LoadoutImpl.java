@@ -7,6 +7,7 @@ import net.runelite.api.Client;
 import net.runelite.api.InventoryID;
 import net.runelite.api.ItemContainer;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Objects;
@@ -44,16 +45,21 @@ public class LoadoutImpl implements ILoadout {
         return new EquipmentImpl(equipment);
     }
 
-    private LoadoutImpl(String name, IInventory inventory, IEquipment equipment) {
+    LoadoutImpl(String name, IInventory inventory, IEquipment equipment) {
         this.name = name;
-        this.inventory = inventory;
-        this.equipment = equipment;
+        // Loadouts with identical contents share the same inventory and equipment instances.
+        this.inventory = ContentPool.Intern(inventory);
+        this.equipment = ContentPool.Intern(equipment);
     }
 
     private String name;
     private IInventory inventory;
     private IEquipment equipment;
 
+    // Computed on first use; 0 means not computed yet (a fingerprint that really is 0 is just recomputed).
+    // A single volatile field, so another thread sees either 0 or the whole value, never a stale pair.
+    private volatile long fingerprint = 0;
+
     @Override
     public String GetName() {
         if (this == Deserializer) {
@@ -78,11 +84,71 @@ public class LoadoutImpl implements ILoadout {
         return equipment;
     }
 
+    @Override
+    public ILoadout Renamed(String name) {
+        if (this == Deserializer) {
+            throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
+        }
+        return new LoadoutImpl(name, inventory, equipment);
+    }
+
+
+
+    @Override
+    public long Fingerprint() {
+        if (this == Deserializer) {
+            throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
+        }
+        long result = fingerprint;
+        if (result == 0) {
+            result = Fingerprint(name, inventory.Fingerprint(), equipment.Fingerprint());
+            fingerprint = result;
+        }
+        return result;
+    }
 
+    static long Fingerprint(String name, long inventoryFingerprint, long equipmentFingerprint) {
+        long hash = Fingerprints.Mix(Fingerprints.SEED, name);
+        hash = Fingerprints.Mix(hash, inventoryFingerprint);
+        return Fingerprints.Mix(hash, equipmentFingerprint);
+    }
 
     /**
-     * Serialization format:
-     * {name};{b64 inventory}:{b64 equipment}:{version}
+     * Loadouts are equal when their names and contents are equal, regardless of how they were loaded.
+     */
+    static boolean ContentEquals(ILoadout loadout, Object other) {
+        if (loadout == other) {
+            return true;
+        }
+        if (!(other instanceof ILoadout)) {
+            return false;
+        }
+        ILoadout that = (ILoadout) other;
+        return loadout.Fingerprint() == that.Fingerprint()
+                && Objects.equals(loadout.GetName(), that.GetName())
+                && Objects.equals(loadout.GetInventory(), that.GetInventory())
+                && Objects.equals(loadout.GetEquipment(), that.GetEquipment());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return ContentEquals(this, other);
+    }
+
+    @Override
+    public int hashCode() {
+        return this == Deserializer ? 0 : Long.hashCode(Fingerprint());
+    }
+
+    /**
+     * The version written by SerializeString. Version 1 records are still accepted by DeserializeString.
+     */
+    private static final String CURRENT_VERSION = "2";
+
+    /**
+     * Serialization format (version 2):
+     * {name};{b64 binary contents}:{version}
+     * The binary contents are described in CompactCodec.
      * This allows us to assume there are no semicolons after the name, so all name chars are supported.
      * @return The serialized loadout following the above format.
      */
@@ -91,13 +157,17 @@ public class LoadoutImpl implements ILoadout {
         if (this == Deserializer) {
             throw new IllegalArgumentException("Attempted to access property on deserializer singleton.");
         }
-        String encodedInventory = Base64.getEncoder().encodeToString(inventory.SerializeString().getBytes());
-        String encodedEquipment = Base64.getEncoder().encodeToString(equipment.SerializeString().getBytes());
-        String version = "1";
+        String encodedContents = Base64.getEncoder().encodeToString(CompactCodec.Encode(inventory, equipment));
 
-        return this.name + ";" + encodedInventory + ":" + encodedEquipment + ":" + version;
+        return this.name + ";" + encodedContents + ":" + CURRENT_VERSION;
     }
 
+    /**
+     * Accepts both supported formats:
+     * {name};{b64 inventory}:{b64 equipment}:1
+     * {name};{b64 binary contents}:2
+     * @return The deserialized loadout.
+     */
     @Override
     public ILoadout DeserializeString(String serialized) {
         String[] topComponents = serialized.strip().split(";", -1);
@@ -113,22 +183,34 @@ public class LoadoutImpl implements ILoadout {
         );
 
         String[] components = topComponents[topComponents.length - 1].split(":", -1);
-        if (components.length != 3) {
-            // Violation of format.
-            System.err.println("Corrupted loadout: wrong number of components: " + Arrays.toString(components));
-            throw new IllegalArgumentException("Corrupted loadout: " + serialized);
+        String version = components[components.length - 1];
+
+        IInventory inventory;
+        IEquipment equipment;
+        if (Objects.equals(version, "2") && components.length == 2) {
+            ByteBuffer contents = ByteBuffer.wrap(Base64.getDecoder().decode(components[0]));
+            inventory = CompactCodec.DecodeInventory(contents);
+            equipment = CompactCodec.DecodeEquipment(contents);
+            if (contents.hasRemaining()) {
+                System.err.println("Corrupted loadout: " + contents.remaining() + " trailing bytes.");
+                throw new IllegalArgumentException("Corrupted loadout: " + serialized);
+            }
         }
-        String decodedInventory = new String(Base64.getDecoder().decode(components[0]));
-        String decodedEquipment = new String(Base64.getDecoder().decode(components[1]));
-        String version = components[2];
-
-        if (!Objects.equals(version, "1")) {
+        else if (Objects.equals(version, "1") && components.length == 3) {
+            String decodedInventory = new String(Base64.getDecoder().decode(components[0]));
+            String decodedEquipment = new String(Base64.getDecoder().decode(components[1]));
+            inventory = InventoryImpl.Deserializer.DeserializeString(decodedInventory);
+            equipment = EquipmentImpl.Deserializer.DeserializeString(decodedEquipment);
+        }
+        else if (components.length == 2 || components.length == 3) {
             System.err.println("Corrupted loadout: unknown version: " + version);
             throw new IllegalArgumentException("Unknown loadout version: " + version);
         }
-
-        IInventory inventory = InventoryImpl.Deserializer.DeserializeString(decodedInventory);
-        IEquipment equipment = EquipmentImpl.Deserializer.DeserializeString(decodedEquipment);
+        else {
+            // Violation of format.
+            System.err.println("Corrupted loadout: wrong number of components: " + Arrays.toString(components));
+            throw new IllegalArgumentException("Corrupted loadout: " + serialized);
+        }
 
         return new LoadoutImpl(loadoutName, inventory, equipment);
     }
@@ -0,0 +1,163 @@
+package com.loadoutsaver.implementations;
+
+import com.loadoutsaver.interfaces.ILoadout;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact, URL-safe share codes for single loadouts.
+ * Format:
+ * {PREFIX}{base64url, unpadded: {method}{body}{crc32}}
+ * where the payload is {varint name length}{UTF-8 name}{CompactCodec contents}, the body is the payload either
+ * stored as-is (method 0) or raw-deflated (method 1), whichever is shorter, and the big-endian CRC32 covers
+ * the uncompressed payload. The checksum is verified before the contents are decoded.
+ * Plain serialized loadouts (see LoadoutImpl::SerializeString) are still accepted as legacy share codes.
+ */
+public final class ShareCodes {
+
+    public static final String PREFIX = "LS1.";
+
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 1;
+
+    // Far larger than any real loadout; stops a crafted code from inflating without bound.
+    private static final int MAX_PAYLOAD_BYTES = 1 << 16;
+
+    private ShareCodes() {}
+
+    /**
+     * @param loadout The loadout to share.
+     * @return The loadout's share code.
+     */
+    public static String Encode(ILoadout loadout) {
+        byte[] name = loadout.GetName().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(name.length + 64);
+        CompactCodec.WriteVarInt(payload, name.length);
+        payload.write(name, 0, name.length);
+        byte[] contents = CompactCodec.Encode(loadout.GetInventory(), loadout.GetEquipment());
+        payload.write(contents, 0, contents.length);
+        byte[] raw = payload.toByteArray();
+
+        byte[] deflated = Deflate(raw);
+        boolean useDeflated = deflated.length < raw.length;
+        byte[] body = useDeflated ? deflated : raw;
+
+        ByteBuffer code = ByteBuffer.allocate(1 + body.length + Integer.BYTES);
+        code.put((byte) (useDeflated ? METHOD_DEFLATED : METHOD_STORED));
+        code.put(body);
+        code.putInt(Checksum(raw));
+        return PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(code.array());
+    }
+
+    /**
+     * @param code A compact share code, or a legacy one (a serialized loadout).
+     * @return The shared loadout.
+     * @throws IllegalArgumentException If the code is corrupted or in an unknown format.
+     */
+    public static ILoadout Decode(String code) {
+        String trimmed = code.strip();
+        if (!trimmed.startsWith(PREFIX)) {
+            return LoadoutImpl.Deserializer.DeserializeString(trimmed);
+        }
+
+        byte[] bytes = Base64.getUrlDecoder().decode(trimmed.substring(PREFIX.length()));
+        if (bytes.length < 1 + Integer.BYTES) {
+            throw new IllegalArgumentException("Corrupted share code: too short.");
+        }
+        byte[] body = Arrays.copyOfRange(bytes, 1, bytes.length - Integer.BYTES);
+        int checksum = ByteBuffer.wrap(bytes, bytes.length - Integer.BYTES, Integer.BYTES).getInt();
+
+        byte[] raw;
+        switch (bytes[0]) {
+            case METHOD_STORED:
+                raw = body;
+                break;
+            case METHOD_DEFLATED:
+                raw = Inflate(body);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown share code compression: " + bytes[0]);
+        }
+        if (Checksum(raw) != checksum) {
+            throw new IllegalArgumentException("Corrupted share code: checksum mismatch.");
+        }
+
+        ByteBuffer payload = ByteBuffer.wrap(raw);
+        try {
+            int nameLength = CompactCodec.ReadVarInt(payload);
+            if (nameLength < 0 || nameLength > payload.remaining()) {
+                throw new IllegalArgumentException("Corrupted share code: bad name length " + nameLength);
+            }
+            String name = new String(raw, payload.position(), nameLength, StandardCharsets.UTF_8);
+            payload.position(payload.position() + nameLength);
+            LoadoutImpl loadout = new LoadoutImpl(
+                    name, CompactCodec.DecodeInventory(payload), CompactCodec.DecodeEquipment(payload)
+            );
+            if (payload.hasRemaining()) {
+                throw new IllegalArgumentException("Corrupted share code: " + payload.remaining() + " trailing bytes.");
+            }
+            return loadout;
+        }
+        catch (BufferUnderflowException bue) {
+            throw new IllegalArgumentException("Corrupted share code: payload ended early.");
+        }
+    }
+
+    private static int Checksum(byte[] raw) {
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] Deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length);
+            byte[] buffer = new byte[256];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        }
+        finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] Inflate(byte[] body) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(body);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length * 2);
+            byte[] buffer = new byte[256];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Corrupted share code: compressed data ended early.");
+                }
+                out.write(buffer, 0, read);
+                if (out.size() > MAX_PAYLOAD_BYTES) {
+                    throw new IllegalArgumentException("Corrupted share code: too large.");
+                }
+            }
+            return out.toByteArray();
+        }
+        catch (DataFormatException dfe) {
+            throw new IllegalArgumentException("Corrupted share code: " + dfe.getMessage());
+        }
+        finally {
+            inflater.end();
+        }
+    }
+}
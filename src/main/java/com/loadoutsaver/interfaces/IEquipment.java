@@ -9,6 +9,21 @@ import java.util.Map;
  */
 public interface IEquipment extends ISerializable<IEquipment> {
 
+    /**
+     * Builds a map of the worn items. Prefer the per-slot accessors, which don't allocate.
+     */
     Map<EquipmentInventorySlot, IItemStack> GetEquipment();
 
+    /**
+     * @return The item id worn in the slot, or -1 if the slot is empty.
+     */
+    int GetItemID(EquipmentInventorySlot slot);
+
+    int GetQuantity(EquipmentInventorySlot slot);
+
+    /**
+     * @return A stable 64-bit fingerprint of the equipment's contents.
+     */
+    long Fingerprint();
+
 }
@@ -5,6 +5,23 @@ package com.loadoutsaver.interfaces;
  */
 public interface IInventory extends ISerializable<IInventory> {
 
+    /**
+     * Builds an array of item stacks for the whole inventory. Prefer the per-slot accessors, which don't allocate.
+     */
     IItemStack[] GetItems();
 
+    int Size();
+
+    /**
+     * @return The item id in the slot, or -1 if the slot is empty.
+     */
+    int GetItemID(int slot);
+
+    int GetQuantity(int slot);
+
+    /**
+     * @return A stable 64-bit fingerprint of the inventory's contents.
+     */
+    long Fingerprint();
+
 }
@@ -12,4 +12,17 @@ public interface ILoadout extends ISerializable<ILoadout> {
 
     IEquipment GetEquipment();
 
+    /**
+     * @param name The name for the copy.
+     * @return A copy of this loadout with the given name and the same inventory and equipment.
+     */
+    ILoadout Renamed(String name);
+
+    /**
+     * Two loadouts with the same name, inventory and equipment have the same fingerprint, however they were
+     * loaded. The fingerprint is computed once per loadout.
+     * @return A stable 64-bit fingerprint of the loadout's name and contents.
+     */
+    long Fingerprint();
+
 }
@@ -0,0 +1,36 @@
+package com.loadoutsaver.interfaces;
+
+import java.util.List;
+
+/**
+ * A loadout store persists the user's ordered loadout collection.
+ */
+public interface ILoadoutStore {
+
+    /**
+     * Reads the stored loadouts.
+     * @return The stored loadouts, in the user's order.
+     */
+    List<ILoadout> Load();
+
+    /**
+     * Persists the given collection. Implementations only write what changed since the last load or save.
+     * @param loadouts The full, ordered loadout collection.
+     */
+    void Save(List<ILoadout> loadouts);
+
+    /**
+     * A cheap estimate of how many loadouts Load will return, for progress display.
+     * @return The estimated count, or -1 if it isn't known without loading.
+     */
+    default int EstimateCount() {
+        return -1;
+    }
+
+    /**
+     * @return How many stored loadouts the last Load could not read, and so left out. 0 if every one loaded.
+     */
+    default int GetUnreadableCount() {
+        return 0;
+    }
+}
@@ -1,14 +1,11 @@
 package com.loadoutsaver.ui;
 
-import javax.imageio.ImageIO;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.border.EmptyBorder;
 import java.awt.Graphics;
 import java.awt.GridLayout;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.util.Objects;
 
 public class EquipmentPanel extends JPanel {
 
@@ -19,7 +16,7 @@ public class EquipmentPanel extends JPanel {
     // The plain background image for this tile, which is drawn behind the item image when an equipment slot is filled.
     private final BufferedImage plainImage;
 
-    private JLabel label = new JLabel();
+    private final JLabel label = new JLabel();
 
     /**
      * Creates an equipment panel.
@@ -39,45 +36,42 @@ public class EquipmentPanel extends JPanel {
             defaultBackground = defaultBackground + ".png";
         }
 
-        synchronized (ImageIO.class) {
-            try {
-                image = ImageIO.read(Objects.requireNonNull(getClass().getResourceAsStream(defaultBackground)));
-            }
-            catch (IOException | NullPointerException ignored) {
-                System.out.println("Could not find equipment background: " + defaultBackground);
-                image = new BufferedImage(54, 54, BufferedImage.TYPE_INT_ARGB);
-            }
-            try {
-                plainImage1 = ImageIO.read(Objects.requireNonNull(getClass().getResourceAsStream("emptyequipment.png")));
-            }
-            catch (IOException | NullPointerException ignored) {
-                System.out.println("Could not find equipment background: " + defaultBackground);
-                plainImage1 = new BufferedImage(54, 54, BufferedImage.TYPE_INT_ARGB);
-            }
+        // Decoded images are shared between every equipment panel.
+        image = ImageCache.Get(defaultBackground);
+        if (image == null) {
+            System.out.println("Could not find equipment background: " + defaultBackground);
+            image = new BufferedImage(54, 54, BufferedImage.TYPE_INT_ARGB);
+        }
+        plainImage1 = ImageCache.Get("emptyequipment.png");
+        if (plainImage1 == null) {
+            System.out.println("Could not find equipment background: " + defaultBackground);
+            plainImage1 = new BufferedImage(54, 54, BufferedImage.TYPE_INT_ARGB);
         }
 
         plainImage = plainImage1;
         defaultImage = image;
+        label.setAlignmentX(CENTER_ALIGNMENT);
+        label.setAlignmentY(CENTER_ALIGNMENT);
         this.add(label);
 
         this.setBorder(new EmptyBorder(3, 3, 3, 3));
     }
 
-    public JLabel GetNewLabel(boolean reset) {
-
-        this.removeAll();
-        label = new JLabel();
+    /**
+     * Clears the item from this tile so that it can be reused for another loadout.
+     * @param reset If true, the slot's default background is shown; otherwise the plain background is used,
+     *              ready for an item image to be drawn on the returned label.
+     * @return The tile's label, onto which an item image can be drawn.
+     */
+    public JLabel ResetLabel(boolean reset) {
         if (reset) {
             image = defaultImage;
         }
         else {
             image = plainImage;
         }
-        label.setAlignmentX(CENTER_ALIGNMENT);
-        label.setAlignmentY(CENTER_ALIGNMENT);
-        this.add(label);
+        ItemIconService.Clear(label);
 
-        this.revalidate();
         this.repaint();
 
         return label;
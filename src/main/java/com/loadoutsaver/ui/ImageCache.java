@@ -0,0 +1,75 @@
+package com.loadoutsaver.ui;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide cache of decoded (and optionally scaled) panel images.
+ * Each resource is decoded once, no matter how many panels draw it.
+ * Cached images are shared, so callers must not draw onto them.
+ */
+final class ImageCache {
+
+    // Keyed by resource name, or by resource name and target width for scaled images.
+    private static final Map<String, Optional<BufferedImage>> images = new ConcurrentHashMap<>();
+
+    private ImageCache() {}
+
+    /**
+     * @param resource The image resource, relative to this package.
+     * @return The decoded image, or null if the resource could not be read.
+     */
+    static BufferedImage Get(String resource) {
+        return images.computeIfAbsent(resource, ImageCache::Read).orElse(null);
+    }
+
+    /**
+     * @param resource The image resource, relative to this package.
+     * @param width The width to scale to. The height is scaled to preserve the aspect ratio.
+     * @return The decoded and scaled image, or null if the resource could not be read.
+     */
+    static BufferedImage GetScaledToWidth(String resource, int width) {
+        // The original is looked up first: ConcurrentHashMap does not allow nested computeIfAbsent calls.
+        BufferedImage original = Get(resource);
+        if (original == null) {
+            return null;
+        }
+        return images.computeIfAbsent(
+                resource + "@" + width,
+                key -> Optional.of(Scale(original, width))
+        ).orElse(null);
+    }
+
+    private static Optional<BufferedImage> Read(String resource) {
+        try (InputStream stream = ImageCache.class.getResourceAsStream(resource)) {
+            if (stream == null) {
+                System.out.println("Could not find image resource: " + resource);
+                return Optional.empty();
+            }
+            synchronized (ImageIO.class) {
+                return Optional.ofNullable(ImageIO.read(stream));
+            }
+        }
+        catch (IOException ioe) {
+            System.out.println("Could not read image resource: " + resource);
+            return Optional.empty();
+        }
+    }
+
+    private static BufferedImage Scale(BufferedImage image, int width) {
+        int height = (width * image.getHeight()) / image.getWidth();
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return scaled;
+    }
+}
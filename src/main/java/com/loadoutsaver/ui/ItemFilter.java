@@ -0,0 +1,99 @@
+package com.loadoutsaver.ui;
+
+import com.loadoutsaver.Metrics;
+import net.runelite.api.Client;
+import net.runelite.api.ItemComposition;
+import net.runelite.client.callback.ClientThread;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Turns item filter text into groups of item ids for the loadout manager's item index.
+ * The text is a comma separated list of item ids or names. A name matches every saved item with that name,
+ * or, if there is none, every saved item whose name contains it. Names are only searched among items that
+ * appear in saved loadouts, and are read from item definitions on the client thread and cached.
+ * Filters must be resolved on the EDT; results are delivered on the EDT.
+ */
+class ItemFilter {
+
+    private final Client client;
+    private final ClientThread clientThread;
+
+    // Lower-cased item names. Only touched on the client thread.
+    private final Map<Integer, String> names = new HashMap<>();
+
+    ItemFilter(Client client, ClientThread clientThread) {
+        this.client = client;
+        this.clientThread = clientThread;
+    }
+
+    /**
+     * @param text The filter text.
+     * @param itemIDs Every item id used by a saved loadout.
+     * @param callback Receives one group of item ids per term in the text. A term nothing matched has an empty group.
+     */
+    void Resolve(String text, Set<Integer> itemIDs, Consumer<List<int[]>> callback) {
+        List<String> terms = new ArrayList<>();
+        for (String term : text.split(",")) {
+            term = term.strip().toLowerCase(Locale.ROOT);
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+
+        boolean needsNames = terms.stream().anyMatch(term -> ParseID(term) < 0);
+        if (!needsNames) {
+            callback.accept(Match(terms, itemIDs));
+            return;
+        }
+
+        long scheduled = System.nanoTime();
+        clientThread.invokeLater(() -> {
+            Metrics.Timer(Metrics.CLIENT_THREAD_HOP).Since(scheduled);
+            for (int itemID : itemIDs) {
+                names.computeIfAbsent(itemID, this::Name);
+            }
+            List<int[]> groups = Match(terms, itemIDs);
+            SwingUtilities.invokeLater(() -> callback.accept(groups));
+        });
+    }
+
+    private String Name(int itemID) {
+        ItemComposition composition = client.getItemDefinition(itemID);
+        return composition == null ? "" : composition.getName().toLowerCase(Locale.ROOT);
+    }
+
+    private List<int[]> Match(List<String> terms, Set<Integer> itemIDs) {
+        List<int[]> groups = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            int id = ParseID(term);
+            if (id >= 0) {
+                groups.add(new int[] {id});
+                continue;
+            }
+            int[] exact = itemIDs.stream().filter(i -> term.equals(names.get(i))).mapToInt(i -> i).toArray();
+            if (exact.length > 0) {
+                groups.add(exact);
+                continue;
+            }
+            groups.add(itemIDs.stream().filter(i -> names.getOrDefault(i, "").contains(term)).mapToInt(i -> i).toArray());
+        }
+        return groups;
+    }
+
+    private static int ParseID(String term) {
+        try {
+            return Integer.parseInt(term);
+        }
+        catch (NumberFormatException nfe) {
+            return -1;
+        }
+    }
+}
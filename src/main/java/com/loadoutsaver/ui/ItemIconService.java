@@ -0,0 +1,133 @@
+package com.loadoutsaver.ui;
+
+import com.loadoutsaver.Metrics;
+import com.loadoutsaver.interfaces.IItemStack;
+import net.runelite.api.Client;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.game.ItemManager;
+import net.runelite.client.util.AsyncBufferedImage;
+
+import javax.swing.ImageIcon;
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+import java.awt.image.BufferedImage;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resolves item icons without blocking any thread.
+ * An icon needs the item's stackability (from the client thread) and then the rendered image (loaded
+ * asynchronously by the item manager); both steps are chained as futures. Each label gets exactly one,
+ * final icon, and icons that finish together are handed to Swing in a single EDT task so that their
+ * repaints are merged.
+ */
+class ItemIconService {
+
+    /**
+     * Client property recording which item stack a label is currently showing.
+     * Labels are recycled, so icons that arrive late check this before drawing.
+     */
+    static final String ITEM_PROPERTY = "loadoutsaver.item";
+
+    private static class Delivery {
+        private final JLabel label;
+        private final IItemStack item;
+        private final BufferedImage image;
+        private final long requestedNanos;
+
+        private Delivery(JLabel label, IItemStack item, BufferedImage image, long requestedNanos) {
+            this.label = label;
+            this.item = item;
+            this.image = image;
+            this.requestedNanos = requestedNanos;
+        }
+    }
+
+    private final ItemManager itemManager;
+    private final StackabilityCache stackabilityCache;
+
+    private final Queue<Delivery> deliveries = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean deliveryScheduled = new AtomicBoolean(false);
+
+    ItemIconService(Client client, ClientThread clientThread, ItemManager itemManager) {
+        this.itemManager = itemManager;
+        this.stackabilityCache = new StackabilityCache(client, clientThread);
+    }
+
+    /**
+     * Starts resolving the icon for the item stack. Must be called on the EDT.
+     * @param label The label to show the icon on. Any icon it was showing is cleared.
+     * @param itemStack The item stack to draw.
+     */
+    void Load(JLabel label, IItemStack itemStack) {
+        label.putClientProperty(ITEM_PROPERTY, itemStack);
+
+        CompletableFuture<BufferedImage> icon = Icon(itemStack);
+        if (icon.isDone() && !icon.isCompletedExceptionally()) {
+            // Everything was cached, so skip the hop through the delivery queue.
+            label.setIcon(new ImageIcon(icon.join()));
+            Metrics.Count(Metrics.ICON_CACHE_HITS);
+            return;
+        }
+
+        label.setIcon(null);
+        long requested = System.nanoTime();
+        icon.whenComplete(
+                (image, failure) -> {
+                    if (failure != null) {
+                        Metrics.Count(Metrics.ICON_FAILURES);
+                    }
+                    else {
+                        Deliver(new Delivery(label, itemStack, image, requested));
+                    }
+                }
+        );
+    }
+
+    /**
+     * Clears the label's icon, and stops any pending icon from being drawn on it.
+     */
+    static void Clear(JLabel label) {
+        label.setIcon(null);
+        label.putClientProperty(ITEM_PROPERTY, null);
+    }
+
+    private CompletableFuture<BufferedImage> Icon(IItemStack itemStack) {
+        return stackabilityCache.Stackable(itemStack.ItemID()).exceptionally(
+                // If the definition can't be read, trust our data: a quantity means it stacks.
+                failure -> itemStack.Quantity() > 1
+        ).thenCompose(
+                stackable -> Loaded(itemManager.getImage(itemStack.ItemID(), itemStack.Quantity(), stackable))
+        );
+    }
+
+    private static CompletableFuture<BufferedImage> Loaded(AsyncBufferedImage image) {
+        CompletableFuture<BufferedImage> loaded = new CompletableFuture<>();
+        image.onLoaded(() -> loaded.complete(image));
+        if (image.isLoaded()) {
+            loaded.complete(image);
+        }
+        return loaded;
+    }
+
+    private void Deliver(Delivery delivery) {
+        deliveries.add(delivery);
+        if (deliveryScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::DrainDeliveries);
+        }
+    }
+
+    private void DrainDeliveries() {
+        deliveryScheduled.set(false);
+        Delivery delivery;
+        while ((delivery = deliveries.poll()) != null) {
+            if (delivery.label.getClientProperty(ITEM_PROPERTY) == delivery.item) {
+                delivery.label.setIcon(new ImageIcon(delivery.image));
+            }
+            // Measured up to the icon reaching the EDT, since that is what the user waits for.
+            Metrics.Timer(Metrics.ICON_RESOLVE).Since(delivery.requestedNanos);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.loadoutsaver.ui;
+
+import com.loadoutsaver.implementations.LoadoutDiff;
+import net.runelite.api.Client;
+import net.runelite.api.EquipmentInventorySlot;
+import net.runelite.api.widgets.ComponentID;
+import net.runelite.api.widgets.InterfaceID;
+import net.runelite.api.widgets.Widget;
+import net.runelite.api.widgets.WidgetItem;
+import net.runelite.client.ui.overlay.WidgetItemOverlay;
+
+import javax.inject.Inject;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Stroke;
+
+/**
+ * Highlights inventory slots and worn items that differ from the loadout selected for comparison (see LoadoutDiff).
+ * Items that are wrong are outlined in red, and items that are short are outlined in yellow with the shortfall.
+ * Inventory and equipment slots that should hold an item but are empty are outlined with a dashed line.
+ * Only the player's own inventory and worn equipment are compared; the same items shown elsewhere (for example,
+ * the inventory beside the bank) are left alone, since their slots don't line up with the loadout's.
+ * Drawing only reads the diff's arrays; nothing is compared per frame.
+ */
+public class LoadoutDiffOverlay extends WidgetItemOverlay {
+
+    private static final Color WRONG_COLOR = new Color(220, 40, 40);
+    private static final Color WRONG_FILL = new Color(220, 40, 40, 50);
+    private static final Color SHORT_COLOR = new Color(240, 200, 40);
+    private static final Color SHORT_FILL = new Color(240, 200, 40, 50);
+    private static final Color MISSING_COLOR = new Color(220, 40, 40, 160);
+    private static final Stroke MISSING_STROKE = new BasicStroke(
+            1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10, new float[] {3, 3}, 0
+    );
+
+    private final Client client;
+    private final LoadoutDiff diff;
+
+    @Inject
+    LoadoutDiffOverlay(Client client, LoadoutDiff diff) {
+        this.client = client;
+        this.diff = diff;
+        showOnInventory();
+        showOnEquipment();
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics) {
+        Dimension result = super.render(graphics);
+        if (diff.IsActive() && diff.GetMissingInventorySlots() != 0) {
+            RenderMissingSlots(graphics);
+        }
+        if (diff.IsActive() && diff.GetMissingEquipmentSlots() != 0) {
+            RenderMissingEquipment(graphics);
+        }
+        return result;
+    }
+
+    @Override
+    public void renderItemOverlay(Graphics2D graphics, int itemId, WidgetItem widgetItem) {
+        if (!diff.HasDifferences()) {
+            return;
+        }
+        int status;
+        String label;
+        Widget widget = widgetItem.getWidget();
+        if (widget == null) {
+            return;
+        }
+        if (widget.getId() == ComponentID.INVENTORY_CONTAINER) {
+            int slot = widgetItem.getIndex();
+            status = diff.GetInventoryStatus(slot, itemId);
+            label = status == LoadoutDiff.MATCH ? null : diff.GetInventoryLabel(slot);
+        }
+        else if (widget.getId() >>> 16 == InterfaceID.EQUIPMENT) {
+            // A component id's high half is its interface. Worn items sit in the equipment interface's slot widgets.
+            int slotIndex = diff.FindEquipmentDifference(itemId);
+            if (slotIndex < 0) {
+                return;
+            }
+            status = diff.GetEquipmentStatus(slotIndex);
+            label = diff.GetEquipmentLabel(slotIndex);
+        }
+        else {
+            return;
+        }
+        if (status == LoadoutDiff.MATCH) {
+            return;
+        }
+
+        Rectangle bounds = widgetItem.getCanvasBounds();
+        boolean isShort = status == LoadoutDiff.SHORT;
+        graphics.setColor(isShort ? SHORT_FILL : WRONG_FILL);
+        graphics.fill(bounds);
+        graphics.setColor(isShort ? SHORT_COLOR : WRONG_COLOR);
+        graphics.draw(bounds);
+        if (label != null) {
+            graphics.drawString(label, bounds.x + 1, bounds.y + bounds.height - 1);
+        }
+    }
+
+    /**
+     * Empty slots have no item to draw over, so they are found through the inventory widget's slots instead.
+     */
+    private void RenderMissingSlots(Graphics2D graphics) {
+        Widget inventory = client.getWidget(ComponentID.INVENTORY_CONTAINER);
+        if (inventory == null || inventory.isHidden()) {
+            return;
+        }
+        int missing = diff.GetMissingInventorySlots();
+        Stroke stroke = graphics.getStroke();
+        graphics.setStroke(MISSING_STROKE);
+        graphics.setColor(MISSING_COLOR);
+        for (int slot = 0; missing != 0; slot++, missing >>>= 1) {
+            if ((missing & 1) == 0) {
+                continue;
+            }
+            Widget slotWidget = inventory.getChild(slot);
+            if (slotWidget != null) {
+                graphics.draw(slotWidget.getBounds());
+            }
+        }
+        graphics.setStroke(stroke);
+    }
+
+    /**
+     * Empty equipment slots are found through the equipment interface's slot widgets, which are only
+     * drawn while the worn equipment tab is open.
+     */
+    private void RenderMissingEquipment(Graphics2D graphics) {
+        int missing = diff.GetMissingEquipmentSlots();
+        Stroke stroke = graphics.getStroke();
+        graphics.setStroke(MISSING_STROKE);
+        graphics.setColor(MISSING_COLOR);
+        for (EquipmentInventorySlot slot : EquipmentInventorySlot.values()) {
+            int componentID = SlotWidget(slot);
+            if ((missing & (1 << slot.getSlotIdx())) == 0 || componentID < 0) {
+                continue;
+            }
+            Widget slotWidget = client.getWidget(componentID);
+            if (slotWidget != null && !slotWidget.isHidden()) {
+                graphics.draw(slotWidget.getBounds());
+            }
+        }
+        graphics.setStroke(stroke);
+    }
+
+    private static int SlotWidget(EquipmentInventorySlot slot) {
+        switch (slot) {
+            case HEAD:
+                return ComponentID.EQUIPMENT_HELMET;
+            case CAPE:
+                return ComponentID.EQUIPMENT_CAPE;
+            case AMULET:
+                return ComponentID.EQUIPMENT_AMULET;
+            case WEAPON:
+                return ComponentID.EQUIPMENT_WEAPON;
+            case BODY:
+                return ComponentID.EQUIPMENT_BODY;
+            case SHIELD:
+                return ComponentID.EQUIPMENT_SHIELD;
+            case LEGS:
+                return ComponentID.EQUIPMENT_LEGS;
+            case GLOVES:
+                return ComponentID.EQUIPMENT_GLOVES;
+            case BOOTS:
+                return ComponentID.EQUIPMENT_BOOTS;
+            case RING:
+                return ComponentID.EQUIPMENT_RING;
+            case AMMO:
+                return ComponentID.EQUIPMENT_AMMO;
+            default:
+                return -1;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.loadoutsaver.ui;
+
+import com.loadoutsaver.implementations.ItemStackImpl;
+import com.loadoutsaver.implementations.ShareCodes;
+import com.loadoutsaver.interfaces.IInventory;
+import com.loadoutsaver.interfaces.ILoadout;
+
+import javax.swing.BoxLayout;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.border.EmptyBorder;
+import java.awt.GridLayout;
+import java.awt.Toolkit;
+import java.awt.datatransfer.StringSelection;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Objects;
+
+/**
+ * A single rendered loadout: its name, equipment, inventory and action buttons.
+ * Rows are built once and re-bound to different loadouts as the user scrolls.
+ */
+class LoadoutRowPanel extends JPanel {
+
+    private static final int INVENTORY_SIZE = 28;
+    private static final int INVENTORY_COLUMNS = 4;
+
+    private static final String REMOVE_TEXT = "Remove";
+    private static final String CONFIRM_REMOVE_TEXT = "Click again to confirm delete";
+    private static final String COPY_TEXT = "Copy share code to clipboard";
+    private static final String COMPARE_TEXT = "Compare with current gear";
+
+    private final LoadoutSaverPanel owner;
+
+    private final JLabel nameLabel = new JLabel();
+    private final TotalEquipmentPanel equipmentPanel;
+    private final JLabel[] inventoryLabels = new JLabel[INVENTORY_SIZE];
+    private final JButton removeButton = new JButton(REMOVE_TEXT);
+    private final JButton copyButton = new JButton(COPY_TEXT);
+    private final JButton compareButton = new JButton(COMPARE_TEXT);
+
+    private ILoadout loadout;
+
+    LoadoutRowPanel(LoadoutSaverPanel owner, int padding) {
+        this.owner = owner;
+        // Pad top and bottom to have some space between other components; arrange everything in one column.
+        this.setBorder(new EmptyBorder(padding, 0, padding, 0));
+        this.setLayout(new BoxLayout(this, BoxLayout.PAGE_AXIS));
+
+        // Show the loadout's name.
+        nameLabel.setAlignmentX(CENTER_ALIGNMENT);
+        this.add(nameLabel);
+
+        // Display the loadout images.
+        equipmentPanel = new TotalEquipmentPanel(owner);
+        this.add(equipmentPanel.GetPanel());
+        JPanel spacer = new JPanel();
+        spacer.setBorder(new EmptyBorder(padding, 0, 0, 0));
+        spacer.setAlignmentX(CENTER_ALIGNMENT);
+        this.add(spacer);
+        this.add(BuildInventoryGrid(padding));
+
+        // "Remove" button for removing a loadout.
+        removeButton.addActionListener(
+                ae -> {
+                    if (Objects.equals(removeButton.getText(), CONFIRM_REMOVE_TEXT)) {
+                        owner.RemoveLoadout(loadout);
+                    }
+                    else {
+                        removeButton.setText(CONFIRM_REMOVE_TEXT);
+                    }
+                }
+        );
+        removeButton.setAlignmentX(CENTER_ALIGNMENT);
+        this.add(removeButton);
+
+        // Copy button to place the share code (see ShareCodes) for the given loadout on the player's clipboard.
+        copyButton.addActionListener(
+                ae -> {
+                    Toolkit.getDefaultToolkit().getSystemClipboard().setContents(
+                            new StringSelection(ShareCodes.Encode(loadout)),
+                            null
+                    );
+                    copyButton.setText(
+                            "Copy code (Copied at "
+                            + new SimpleDateFormat("HH:mm:ss").format(Calendar.getInstance().getTime())
+                            + ")"
+                    );
+                }
+        );
+        copyButton.setAlignmentX(CENTER_ALIGNMENT);
+        this.add(copyButton);
+
+        // Highlight in game where the player's current gear differs from this loadout.
+        compareButton.addActionListener(ae -> owner.CompareWith(loadout));
+        compareButton.setAlignmentX(CENTER_ALIGNMENT);
+        this.add(compareButton);
+    }
+
+    /**
+     * Renders the player's inventory into a nice grid on the screen.
+     */
+    private JPanel BuildInventoryGrid(int padding) {
+        JPanel result = owner.PanelWithBackground("inventorybackground.png");
+        int rows = (int) Math.ceil(((double) INVENTORY_SIZE) / INVENTORY_COLUMNS);
+        result.setLayout(new GridLayout(rows, INVENTORY_COLUMNS));
+        result.setBorder(new EmptyBorder(padding, padding, padding, padding));
+
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            JLabel label = new JLabel();
+            label.setBorder(new EmptyBorder(3, 3, 3, 3));
+            label.setAlignmentX(CENTER_ALIGNMENT);
+            label.setAlignmentY(CENTER_ALIGNMENT);
+            inventoryLabels[i] = label;
+            result.add(label);
+        }
+        return result;
+    }
+
+    ILoadout GetLoadout() {
+        return loadout;
+    }
+
+    /**
+     * Shows the given loadout in this row, replacing whatever was shown before.
+     * @param loadout The loadout to draw.
+     */
+    void Bind(ILoadout loadout) {
+        this.loadout = loadout;
+        nameLabel.setText(loadout.GetName());
+        removeButton.setText(REMOVE_TEXT);
+        copyButton.setText(COPY_TEXT);
+
+        equipmentPanel.Bind(loadout.GetEquipment());
+
+        IInventory inventory = loadout.GetInventory();
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            JLabel label = inventoryLabels[i];
+            // For our inventory, location is important.
+            if (i >= inventory.Size() || inventory.GetItemID(i) < 0) {
+                // Empty slot.
+                ItemIconService.Clear(label);
+            }
+            else {
+                owner.AddItemImageToLabel(label, new ItemStackImpl(inventory.GetItemID(i), inventory.GetQuantity(i)));
+            }
+        }
+    }
+}
@@ -1,52 +1,55 @@
 package com.loadoutsaver.ui;
 
+import com.loadoutsaver.DataIO;
+import com.loadoutsaver.LoadoutChangeEvent;
 import com.loadoutsaver.LoadoutManager;
-import com.loadoutsaver.implementations.LoadoutImpl;
-import com.loadoutsaver.interfaces.IEquipment;
-import com.loadoutsaver.interfaces.IInventory;
+import com.loadoutsaver.LoadoutSaverConfig;
+import com.loadoutsaver.Metrics;
+import com.loadoutsaver.ParseResult;
+import com.loadoutsaver.SaveScheduler;
+import com.loadoutsaver.implementations.LiveGear;
+import com.loadoutsaver.implementations.LoadoutDiff;
+import com.loadoutsaver.implementations.ShareCodes;
 import com.loadoutsaver.interfaces.IItemStack;
 import com.loadoutsaver.interfaces.ILoadout;
 import com.loadoutsaver.interfaces.ISubscriber;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
-import net.runelite.api.ItemComposition;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.client.game.ItemManager;
 import net.runelite.client.ui.PluginPanel;
-import net.runelite.client.util.AsyncBufferedImage;
 
-import javax.imageio.ImageIO;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 import javax.swing.border.EmptyBorder;
-import java.awt.Component;
 import java.awt.Dimension;
+import java.awt.Font;
 import java.awt.Graphics;
-import java.awt.GridLayout;
-import java.awt.Image;
-import java.awt.Toolkit;
-import java.awt.datatransfer.StringSelection;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
-import java.util.Objects;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.FutureTask;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Slf4j
 @Singleton
-public class LoadoutSaverPanel extends PluginPanel implements ISubscriber<Stream<ILoadout>> {
+public class LoadoutSaverPanel extends PluginPanel {
 
     private LoadoutManager manager;
 
@@ -59,25 +62,107 @@ public class LoadoutSaverPanel extends PluginPanel implements ISubscriber<Stream
     @Inject
     private ItemManager itemManager;
 
+    @Inject
+    private LoadoutSaverConfig config;
+
+    @Inject
+    private LiveGear liveGear;
+
+    @Inject
+    private LoadoutDiff loadoutDiff;
+
+    // Created on first use (on the EDT), once injection has completed. Lives as long as the panel.
+    private ItemIconService iconService;
+    private ItemFilter itemFilter;
+
+    // The item groups the list is filtered to, or null when every loadout is shown.
+    private List<int[]> activeItemFilter = null;
+    private boolean itemFilterMatchAll = false;
+
     /**
-     * Sets the active loadout manager. In practice this is only called once when loading completes.
+     * Sets the active loadout manager. In practice this is only called once, at startup, on the EDT.
+     * The manager may still be loading its library; the panel shows a loading state until it has.
      * @param manager The loadout manager to associate with this loadout panel.
      */
     public void setManager(LoadoutManager manager) {
         if (this.manager != null) {
-            this.manager.UnSubscribe(this);
+            this.manager.UnSubscribeChanges(changeSubscriber);
+            this.manager.UnSubscribeSaveStatus(saveStatusSubscriber);
         }
         this.manager = manager;
-        this.manager.Subscribe(this);
+        List<ILoadout> loadouts = this.manager.SubscribeChanges(changeSubscriber);
+        this.manager.SubscribeSaveStatus(saveStatusSubscriber);
+        Update(loadouts.stream());
+        // A new manager means the plugin (re)started, which stops any comparison.
+        compareLabel.setText(NOT_COMPARING_TEXT);
+        if (manager.GetLoadFailure() != null) {
+            ShowLoadFailure();
+        }
+        else if (!manager.IsLoaded()) {
+            int expected = manager.GetExpectedCount();
+            loadingLabel.setText(expected < 0 ? "Loading loadouts..." : "Loading " + expected + " loadouts...");
+            loadingLabel.setVisible(true);
+        }
+        else {
+            ShowLoaded();
+        }
     }
 
-    // Had some troubles with rendering and clearing components, so just created this array for tracking...
-    private final List<Component> components = new ArrayList<>();
+    /**
+     * Hides the loading state, or says how many stored loadouts couldn't be read if any were left out.
+     */
+    private void ShowLoaded() {
+        int unreadable = manager.GetUnreadableCount();
+        if (unreadable == 0) {
+            loadingLabel.setVisible(false);
+            return;
+        }
+        String count = unreadable == 1 ? "1 saved loadout" : unreadable + " saved loadouts";
+        loadingLabel.setText("<html>" + count + " could not be read and " + (unreadable == 1 ? "was" : "were")
+                + " left out. See the client log.</html>");
+        loadingLabel.setVisible(true);
+    }
 
-    @Override
-    public Component add(Component c) {
-        this.components.add(c);
-        return super.add(c);
+    /**
+     * Replaces the loading state with an error. The manager refuses changes from now on.
+     */
+    private void ShowLoadFailure() {
+        loadingLabel.setText("<html>Could not load your loadouts, so changes can't be saved. See the client log.</html>");
+        loadingLabel.setVisible(true);
+    }
+
+    // Each change touches a single row of the list rather than redrawing every loadout.
+    // Changes made off the EDT are queued onto it; the queue keeps them in order.
+    private final ISubscriber<LoadoutChangeEvent> changeSubscriber = event -> {
+        if (SwingUtilities.isEventDispatchThread()) {
+            ApplyChange(event);
+        }
+        else {
+            SwingUtilities.invokeLater(() -> ApplyChange(event));
+        }
+    };
+
+    // Save status arrives from the save thread, so it is handed over to the EDT before touching the button.
+    private final ISubscriber<SaveScheduler.Status> saveStatusSubscriber =
+            status -> SwingUtilities.invokeLater(() -> ShowSaveStatus(status));
+
+    private String saveStatusText = "Manually save loadouts";
+
+    private JButton saveButton = null;
+
+    private void ShowSaveStatus(SaveScheduler.Status status) {
+        if (status.IsInFlight()) {
+            saveStatusText = "Saving...";
+        }
+        else if (status.IsPending()) {
+            saveStatusText = "Save pending...";
+        }
+        else if (status.LastSavedMillis() > 0) {
+            saveStatusText = "Saved at " + new SimpleDateFormat("HH:mm:ss").format(new Date(status.LastSavedMillis()));
+        }
+        if (saveButton != null) {
+            saveButton.setText(saveStatusText);
+        }
     }
 
     private void AlignAdd(JComponent c) {
@@ -88,29 +173,97 @@ public class LoadoutSaverPanel extends PluginPanel implements ISubscriber<Stream
 
     private JTextField loadoutName = null;
 
+    // Shown above the list while the manager loads the library.
+    private JLabel loadingLabel = null;
+
+    // Created with the controls on the first update; afterwards updates only swap the list's contents.
+    private VirtualLoadoutList loadoutList = null;
+
     private static final int PADDING = 5;
     private static final int INNER_WIDTH = PANEL_WIDTH - (2 * PADDING);
 
-    @Override
+    /**
+     * Shows the given loadouts in place of whatever was shown before.
+     * @param updatedObject The full loadout collection, in order.
+     */
     public void Update(Stream<ILoadout> updatedObject) {
+        long start = System.nanoTime();
+        if (loadoutList == null) {
+            BuildControls();
+        }
 
-        this.getScrollPane().getVerticalScrollBar().setUnitIncrement(16);
-        this.setBorder(new EmptyBorder(PADDING, PADDING, PADDING, PADDING));
-        this.setLayout(new BoxLayout(this, BoxLayout.PAGE_AXIS));
+        if (activeItemFilter != null) {
+            ShowFiltered();
+        }
+        else {
+            loadoutList.SetLoadouts(updatedObject.collect(Collectors.toList()));
+        }
+
+        this.revalidate();
+        this.repaint();
+        Metrics.Timer(Metrics.PANEL_UPDATE).Since(start);
+    }
+
+    private void ApplyChange(LoadoutChangeEvent event) {
+        long start = System.nanoTime();
+        if (loadoutList == null) {
+            BuildControls();
+        }
+
+        if (event.GetType() == LoadoutChangeEvent.Type.LOADED) {
+            ShowLoaded();
+        }
+        else if (event.GetType() == LoadoutChangeEvent.Type.LOAD_FAILED) {
+            ShowLoadFailure();
+        }
 
-        String storedName = "My Custom Loadout";
-        if (loadoutName != null) {
-            storedName = loadoutName.getText();
+        if (activeItemFilter != null) {
+            // Positions in a filtered list don't line up with the event's indexes, so re-run the query instead.
+            ShowFiltered();
+            this.revalidate();
+            this.repaint();
+            Metrics.Timer(Metrics.PANEL_CHANGE).Since(start);
+            return;
         }
 
-        for (Component c : components) {
-            this.remove(c);
+        switch (event.GetType()) {
+            case ADDED:
+                loadoutList.Insert(event.GetIndex(), event.GetLoadout());
+                break;
+            case REMOVED:
+                loadoutList.Remove(event.GetIndex());
+                break;
+            case MOVED:
+                loadoutList.Move(event.GetPreviousIndex(), event.GetIndex());
+                break;
+            case RENAMED:
+                loadoutList.Replace(event.GetIndex(), event.GetLoadout());
+                break;
+            case CLEARED:
+                loadoutList.SetLoadouts(Collections.emptyList());
+                break;
+            case LOADED:
+            case BATCH:
+                loadoutList.SetLoadouts(event.GetLoadouts());
+                break;
         }
-        this.components.clear();
+
+        this.revalidate();
+        this.repaint();
+        Metrics.Timer(Metrics.PANEL_CHANGE).Since(start);
+    }
+
+    /**
+     * Builds the controls above the loadout list, and the list itself. This only happens once.
+     */
+    private void BuildControls() {
+        this.getScrollPane().getVerticalScrollBar().setUnitIncrement(16);
+        this.setBorder(new EmptyBorder(PADDING, PADDING, PADDING, PADDING));
+        this.setLayout(new BoxLayout(this, BoxLayout.PAGE_AXIS));
 
         this.AlignAdd(new JLabel("Custom loadout name:"));
 
-        loadoutName = new JTextField(storedName);
+        loadoutName = new JTextField("My Custom Loadout");
         this.AlignAdd(loadoutName);
 
         JButton addButton = new JButton("Add current loadout");
@@ -119,8 +272,15 @@ public class LoadoutSaverPanel extends PluginPanel implements ISubscriber<Stream
                     // Adds the player's current loadout to the loadout list, plus some error handling.
                     if (client.getGameState() == GameState.LOGGED_IN) {
                         try {
-                            this.manager.AddLoadout(new LoadoutImpl(loadoutName.getText(), client));
-                            addButton.setText("Add current loadout");
+                            if (this.manager.AddLoadout(liveGear.Capture(loadoutName.getText()))) {
+                                addButton.setText("Add current loadout");
+                            }
+                            else if (this.manager.GetLoadFailure() != null) {
+                                addButton.setText("Add current loadout. [!] Loadouts failed to load");
+                            }
+                            else {
+                                addButton.setText("Add current loadout. [!] Already saved");
+                            }
                         }
                         catch (IllegalArgumentException iae) {
                             if (iae.getMessage().contains("Client state was unexpected")) {
@@ -140,234 +300,258 @@ public class LoadoutSaverPanel extends PluginPanel implements ISubscriber<Stream
                 });
         this.AlignAdd(addButton);
 
-        JButton saveButton = new JButton("Manually save loadouts");
-        saveButton.addActionListener(
-                al -> {
-                    manager.save();
-                    saveButton.setText(
-                        "Saved at "
-                        + new SimpleDateFormat("HH:mm:ss").format(Calendar.getInstance().getTime())
-                    );
-                }
-        );
+        // The save itself runs in the background; the button text follows the save status.
+        saveButton = new JButton(saveStatusText);
+        saveButton.addActionListener(al -> manager.save());
         this.AlignAdd(saveButton);
 
-        // Allow for loading loadouts based on a share code.
-        // This is just the serialized loadout string (see LoadoutImpl::SerializeString).
-        JTextField loadExternalField = new JTextField("Paste share code here to load");
-        this.AlignAdd(loadExternalField);
-
-        JButton loadButton = new JButton("Load from share code");
-        loadButton.addActionListener(
-                al -> {
-                    try {
-                        ILoadout loaded = LoadoutImpl.Deserializer.DeserializeString(loadExternalField.getText());
-                        manager.AddLoadout(loaded);
-                        loadExternalField.setText("Successfully loaded: " + loaded.GetName());
-                    }
-                    catch (IllegalArgumentException iae) {
-                        loadExternalField.setText("[Invalid code] Paste share code here");
-                    }
-                }
-        );
+        // Allow for loading loadouts based on share codes (see ShareCodes), one per line.
+        // Older codes, which are just the serialized loadout string, are accepted too,
+        // so a whole exported collection can be pasted at once.
+        JTextArea loadExternalField = new JTextArea("Paste share codes here to load, one per line");
+        loadExternalField.setLineWrap(true);
+        JScrollPane loadExternalScroll = new JScrollPane(loadExternalField);
+        loadExternalScroll.setPreferredSize(new Dimension(INNER_WIDTH, 60));
+        loadExternalScroll.setAlignmentX(CENTER_ALIGNMENT);
+        this.add(loadExternalScroll);
+
+        JButton loadButton = new JButton("Load from share codes");
+        loadButton.addActionListener(al -> loadExternalField.setText(ImportShareCodes(loadExternalField.getText())));
         this.AlignAdd(loadButton);
 
-        // Lastly, add all of the rendered loadouts underneath.
-        updatedObject.map(this::AsComponent).forEach(this::AlignAdd);
-
-        this.revalidate();
-        this.repaint();
+        // Filter the list to loadouts using given items, answered from the manager's item index.
+        this.AlignAdd(new JLabel("Filter by items (names or ids):"));
+        JTextField itemFilterField = new JTextField();
+        this.AlignAdd(itemFilterField);
+        JCheckBox matchAllBox = new JCheckBox("Must use every item");
+        this.AlignAdd(matchAllBox);
+        JButton filterButton = new JButton("Filter loadouts");
+        filterButton.addActionListener(al -> ApplyItemFilter(itemFilterField.getText(), matchAllBox.isSelected()));
+        itemFilterField.addActionListener(al -> ApplyItemFilter(itemFilterField.getText(), matchAllBox.isSelected()));
+        this.AlignAdd(filterButton);
+
+        // The loadout the in-game overlay compares the player's gear with, chosen from a row's compare button.
+        compareLabel = new JLabel(NOT_COMPARING_TEXT);
+        this.AlignAdd(compareLabel);
+        JButton stopCompareButton = new JButton("Stop comparing");
+        stopCompareButton.addActionListener(al -> CompareWith(null));
+        this.AlignAdd(stopCompareButton);
+
+        BuildMetricsSection();
+        SetMetricsVisible(config.showMetrics());
+
+        loadingLabel = new JLabel();
+        loadingLabel.setVisible(false);
+        this.AlignAdd(loadingLabel);
+
+        // Lastly, the rendered loadouts go underneath. Only the rows in view are ever built.
+        loadoutList = new VirtualLoadoutList(this, INNER_WIDTH, PADDING);
+        loadoutList.setAlignmentX(CENTER_ALIGNMENT);
+        this.add(loadoutList);
+        this.getScrollPane().getViewport().addChangeListener(ce -> loadoutList.RefreshVisibleRows());
     }
 
     /**
-     * Renders a loadout as a JComponent.
-     * @param loadout The loadout to be rendered.
-     * @return The JComponent rendering of the loadout.
+     * Adds every loadout in the pasted share codes as a single batch, so the library is saved and redrawn once.
+     * @param text Share codes, one per line.
+     * @return A report of the outcome, with a line for each code that wasn't added. While the library is loading,
+     *         the codes are reported as queued rather than added.
      */
-    private JComponent AsComponent(ILoadout loadout) {
-        JPanel panel = new JPanel();
-        // Pad top and bottom to have some space between other components; arrange everything in one column.
-        panel.setBorder(new EmptyBorder(PADDING, 0, PADDING, 0));
-        panel.setLayout(new BoxLayout(panel, BoxLayout.PAGE_AXIS));
-
-        // Show the loadout's name.
-        JLabel nameLabel = new JLabel(loadout.GetName());
-        nameLabel.setAlignmentX(CENTER_ALIGNMENT);
-        panel.add(nameLabel);
-
-        // Display the loadout images.
-        panel.add(AsComponent(loadout.GetEquipment()));
-        JPanel padding = new JPanel();
-        padding.setBorder(new EmptyBorder(PADDING, 0, 0, 0));
-        padding.setAlignmentX(CENTER_ALIGNMENT);
-        panel.add(padding);
-        panel.add(AsComponent(loadout.GetInventory()));
-
-        // "Remove" button for removing a loadout.
-        JButton removeButton = new JButton("Remove");
-        removeButton.addActionListener(
-                ae -> {
-                    if (Objects.equals(removeButton.getText(), "Click again to confirm delete")) {
-                        manager.RemoveLoadout(loadout);
-                    }
-                    else {
-                        removeButton.setText("Click again to confirm delete");
-                    }
-                }
-        );
-        removeButton.setAlignmentX(CENTER_ALIGNMENT);
-        panel.add(removeButton);
-
-        // Copy button to place the share code (serialized string) for the given loadout on the player's clipboard.
-        JButton copyButton = new JButton("Copy share code to clipboard");
-        copyButton.addActionListener(
-            ae -> {
-                Toolkit.getDefaultToolkit().getSystemClipboard().setContents(
-                    new StringSelection(loadout.SerializeString()),
-                    null
-                );
-                copyButton.setText(
-                    "Copy code (Copied at "
-                    + new SimpleDateFormat("HH:mm:ss").format(Calendar.getInstance().getTime())
-                    + ")"
+    private String ImportShareCodes(String text) {
+        ParseResult parsed = DataIO.ParseShareCodes(text);
+        parsed.ReportFailures();
+
+        List<Integer> lines = new ArrayList<>();
+        List<ILoadout> loadouts = new ArrayList<>();
+        for (int i = 0; i < parsed.Size(); i++) {
+            if (parsed.Get(i) != null) {
+                lines.add(i);
+                loadouts.add(parsed.Get(i));
+            }
+        }
+        if (loadouts.isEmpty() && parsed.GetFailures().size() <= 1) {
+            return "[Invalid code] Paste share codes here";
+        }
+        if (manager.GetLoadFailure() != null) {
+            return "[!] Your loadouts failed to load, so codes can't be added.";
+        }
+
+        // Added as one batch. While the library is still loading the batch is only queued, and duplicates
+        // can't be checked until it runs, so nothing is reported as added in that case.
+        boolean[] added = new boolean[loadouts.size()];
+        boolean applied = true;
+        if (!loadouts.isEmpty()) {
+            try {
+                applied = manager.Batch(
+                        tx -> {
+                            for (int i = 0; i < added.length; i++) {
+                                added[i] = tx.Add(loadouts.get(i));
+                            }
+                        }
                 );
             }
-        );
-        copyButton.setAlignmentX(CENTER_ALIGNMENT);
-        panel.add(copyButton);
+            catch (IllegalStateException ise) {
+                // The load failed after the check above.
+                return "[!] Your loadouts failed to load, so codes can't be added.";
+            }
+        }
+
+        if (loadouts.size() == 1 && parsed.GetFailures().isEmpty()) {
+            ILoadout loaded = loadouts.get(0);
+            if (!applied) {
+                return "Queued until your loadouts finish loading: " + loaded.GetName();
+            }
+            return (added[0] ? "Successfully loaded: " : "Already saved: ") + loaded.GetName();
+        }
+
+        // Each line that wasn't added gets a line in the report, in the order they were pasted.
+        Map<Integer, String> problems = new TreeMap<>();
+        int addedCount = 0;
+        if (applied) {
+            for (int i = 0; i < added.length; i++) {
+                if (added[i]) {
+                    addedCount++;
+                }
+                else {
+                    problems.put(lines.get(i), "Already saved: " + loadouts.get(i).GetName());
+                }
+            }
+        }
+        for (ParseResult.Failure failure : parsed.GetFailures()) {
+            problems.put(failure.GetIndex(), "[Invalid code] " + failure.GetReason());
+        }
 
-        return panel;
+        int total = loadouts.size() + parsed.GetFailures().size();
+        StringBuilder report = new StringBuilder(
+                applied
+                        ? "Loaded " + addedCount + " of " + total + " codes."
+                        : "Queued " + loadouts.size() + " of " + total + " codes until your loadouts finish loading."
+                                + " Duplicates will be skipped then."
+        );
+        problems.forEach((line, problem) -> report.append("\nLine ").append(line + 1).append(": ").append(problem));
+        return report.toString();
     }
 
     /**
-     * Creates a JPanel that has the provided background image.
-     * @param backgroundReference The string reference to the background image resource.
-     * @return A JPanel with the loaded image as its background.
+     * Shows only the loadouts using the given items. Empty text shows every loadout again.
      */
-    JPanel PanelWithBackground(String backgroundReference) {
-
-        BufferedImage image;
-        synchronized (ImageIO.class) {
-            try {
-                image = ImageIO.read(Objects.requireNonNull(getClass().getResourceAsStream(backgroundReference)));
-            }
-            catch (IOException ioe) {
-                return new JPanel();
-            }
+    private void ApplyItemFilter(String text, boolean matchAll) {
+        if (text.isBlank()) {
+            activeItemFilter = null;
+            Update(manager.GetLoadouts());
+            return;
         }
-        if (image == null) {
-            return new JPanel();
+        if (itemFilter == null) {
+            itemFilter = new ItemFilter(client, clientThread);
         }
+        itemFilter.Resolve(
+                text,
+                manager.GetUsedItemIDs(),
+                groups -> {
+                    activeItemFilter = groups;
+                    itemFilterMatchAll = matchAll;
+                    Update(manager.GetLoadouts());
+                }
+        );
+    }
 
-        Image resized;
-        int targetWidth = PANEL_WIDTH - 2 * PADDING;
-        int newHeight = (targetWidth * image.getHeight()) / image.getWidth();
-        resized = image.getScaledInstance(targetWidth, newHeight, Image.SCALE_DEFAULT);
-
-        JPanel result = new JPanel() {
-            @Override
-            public void paintComponent(Graphics g) {
-                g.drawImage(resized, 0, 0, null);
-            }
-        };
-        result.setPreferredSize(new Dimension(targetWidth, newHeight));
-        result.setAlignmentX(CENTER_ALIGNMENT);
-        return result;
+    private void ShowFiltered() {
+        loadoutList.SetLoadouts(manager.FindByItems(activeItemFilter, itemFilterMatchAll));
     }
 
+    // The metrics section's controls, shown or hidden as the showMetrics option changes.
+    private final List<JComponent> metricsControls = new ArrayList<>();
+    private JTextArea metricsArea = null;
+
     /**
-     * Equipment was hard to render, so it gets its own class for the component.
-     * @param equipment The equipment set to be drawn as a component.
-     * @return A JComponent that draws the given equipment in a nice way on the screen.
+     * A debug view of the plugin's metrics (see Metrics), refreshed on demand rather than on a timer.
      */
-    private JComponent AsComponent(IEquipment equipment) {
-        return new TotalEquipmentPanel(this, equipment).GetPanel();
+    private void BuildMetricsSection() {
+        metricsArea = new JTextArea();
+        metricsArea.setEditable(false);
+        metricsArea.setLineWrap(true);
+        metricsArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 10));
+
+        JButton refreshButton = new JButton("Refresh metrics");
+        refreshButton.addActionListener(al -> {
+            metricsArea.setText(Metrics.Dump());
+            this.revalidate();
+        });
+
+        JButton logButton = new JButton("Write metrics to log");
+        logButton.addActionListener(al -> log.info("Loadout saver metrics:{}{}", System.lineSeparator(), Metrics.Dump()));
+
+        metricsControls.add(metricsArea);
+        metricsControls.add(refreshButton);
+        metricsControls.add(logButton);
+        metricsControls.forEach(this::AlignAdd);
     }
 
     /**
-     * Renders the player's inventory into a nice grid on the screen.
-     * @param inventory The player's inventory to draw on the screen.
-     * @return A JComponent that renders the given inventory in a nice way on the screen.
+     * Shows or hides the metrics section, for when the showMetrics option changes. Must be called on the EDT.
      */
-    private JComponent AsComponent(IInventory inventory) {
-        int columns = 4;
-        JPanel result = PanelWithBackground("inventorybackground.png");
-        int rows = (int) Math.ceil(((double) inventory.GetItems().length) / columns);
-        result.setLayout(new GridLayout(rows, columns));
-        result.setBorder(new EmptyBorder(PADDING, PADDING, PADDING, PADDING));
-
-        // We remove padding to find out the remaining size.
-        int componentWidth = (result.getWidth() - 2 * PADDING) / columns;
-        int componentHeight = (result.getHeight() - 2 * PADDING) / rows;
-
-        for (IItemStack itemStack : inventory.GetItems()) {
-            JComponent c;
-
-            // For our inventory, location is important.
-            if (itemStack.ItemID() < 0) {
-                // Empty slot.
-                c = new JLabel();
-            }
-            else {
-                c = AsComponent(itemStack);
-            }
-            c.setBorder(new EmptyBorder(3, 3, 3, 3));
-            c.setPreferredSize(new Dimension(componentWidth - 2 * 3, componentHeight - 2 * 3));
-            result.add(c);
+    public void SetMetricsVisible(boolean visible) {
+        if (visible && metricsArea != null) {
+            metricsArea.setText(Metrics.Dump());
         }
+        metricsControls.forEach(c -> c.setVisible(visible));
+        this.revalidate();
+        this.repaint();
+    }
 
-        return result;
+    void RemoveLoadout(ILoadout loadout) {
+        manager.RemoveLoadout(loadout);
     }
 
-    private JComponent AsComponent(IItemStack itemStack) {
-        JLabel label = new JLabel();
-        AddItemImageToLabel(label, itemStack);
-        label.setAlignmentX(CENTER_ALIGNMENT);
-        label.setAlignmentY(CENTER_ALIGNMENT);
-        return label;
+    private static final String NOT_COMPARING_TEXT = "Not comparing with a loadout";
+
+    private JLabel compareLabel = null;
+
+    /**
+     * Highlights in game where the player's gear differs from the loadout. The comparison itself lives on the
+     * client thread, so the selection is handed over to it. Must be called on the EDT.
+     * @param loadout The loadout to compare with, or null to stop comparing.
+     */
+    void CompareWith(ILoadout loadout) {
+        compareLabel.setText(loadout == null ? NOT_COMPARING_TEXT : "Comparing with: " + loadout.GetName());
+        clientThread.invokeLater(() -> loadoutDiff.Select(loadout));
     }
 
-    void AddItemImageToLabel(JLabel label, IItemStack itemStack) {
-        // We can't pull the item information without going to the client thread.
-        // So we do this asynchronously, whenever available, and we add the final image later on.
-        // Prevents the client from lagging - but quantities on stackable images might take some time to show up.
-        AsyncBufferedImage image;
-        // We can make a quick inference and then correct ourselves later.
-        if (itemStack.Quantity() > 1) {
-            // We trust our data (which claims it is naturally stackable), and then verify later.
-            image = itemManager.getImage(itemStack.ItemID(), itemStack.Quantity(), true);
-        }
-        else {
-            // It looks less weird to have an air rune with no quantity than a sword with a 1 quantity.
-            // So we avoid quantities for now, and verify later.
-            image = itemManager.getImage(itemStack.ItemID(), itemStack.Quantity(), false);
+    /**
+     * Creates a JPanel that has the provided background image.
+     * @param backgroundReference The string reference to the background image resource.
+     * @return A JPanel with the loaded image as its background.
+     */
+    JPanel PanelWithBackground(String backgroundReference) {
+
+        // Scaled backgrounds come from the shared cache, so every loadout row draws the same image.
+        int targetWidth = PANEL_WIDTH - 2 * PADDING;
+        BufferedImage resized = ImageCache.GetScaledToWidth(backgroundReference, targetWidth);
+        if (resized == null) {
+            return new JPanel();
         }
-        image.addTo(label);
+        int newHeight = resized.getHeight();
 
-        // Finally, cross-verify later on when the client thread is available.
-        clientThread.invokeLater(() -> AddItemImageToLabelClientThread(label, itemStack));
+        JPanel result = new JPanel() {
+            @Override
+            public void paintComponent(Graphics g) {
+                g.drawImage(resized, 0, 0, null);
+            }
+        };
+        result.setPreferredSize(new Dimension(targetWidth, newHeight));
+        result.setAlignmentX(CENTER_ALIGNMENT);
+        return result;
     }
 
     /**
-     * This function must run on the client thread. It reads from the item definition for the item
-     * in order to determine if the item is actually stackable or not.
-     * This allows us to correct our initially rendered image, which is our best guess.
+     * Draws the item stack's icon on the label once it has been resolved. Never blocks.
      * @param label The label onto which to draw the final image as an icon.
-     * @param item The item stack for which we would like to obtain the image to draw.
+     * @param itemStack The item stack for which we would like to obtain the image to draw.
      */
-    private void AddItemImageToLabelClientThread(JLabel label, IItemStack item) {
-        ItemComposition composition;
-        FutureTask<ItemComposition> getComposition = new FutureTask<>(() -> client.getItemDefinition(item.ItemID()));
-        clientThread.invoke(getComposition);
-        try {
-            composition = getComposition.get();
-        }
-        catch (ExecutionException | InterruptedException e) {
-            // Couldn't get the composition.
-            // Just take our initial image; return.
-            return;
+    void AddItemImageToLabel(JLabel label, IItemStack itemStack) {
+        if (iconService == null) {
+            iconService = new ItemIconService(client, clientThread, itemManager);
         }
-        AsyncBufferedImage image = itemManager.getImage(item.ItemID(), item.Quantity(), composition.isStackable());
-        image.addTo(label);
+        iconService.Load(label, itemStack);
     }
 }
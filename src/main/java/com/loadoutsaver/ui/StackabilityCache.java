@@ -0,0 +1,84 @@
+package com.loadoutsaver.ui;
+
+import com.loadoutsaver.Metrics;
+import net.runelite.api.Client;
+import net.runelite.api.ItemComposition;
+import net.runelite.client.callback.ClientThread;
+
+import javax.swing.SwingUtilities;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches whether each item is stackable, which can only be read from item definitions on the client thread.
+ * Lookups requested while the panel renders are collected and resolved in a single client thread task
+ * once the render pass is over; results are kept for every later render.
+ * Lookups must be requested on the EDT. The returned futures complete on the client thread.
+ */
+class StackabilityCache {
+
+    private final Client client;
+    private final ClientThread clientThread;
+
+    private final Map<Integer, CompletableFuture<Boolean>> stackable = new ConcurrentHashMap<>();
+
+    // Lookups that have not been handed to the client thread yet, keyed by item id.
+    private final Map<Integer, CompletableFuture<Boolean>> waiting = new HashMap<>();
+
+    private boolean flushScheduled = false;
+
+    StackabilityCache(Client client, ClientThread clientThread) {
+        this.client = client;
+        this.clientThread = clientThread;
+    }
+
+    /**
+     * @return A future for whether the item is stackable. It is already complete if the item was resolved before.
+     */
+    CompletableFuture<Boolean> Stackable(int itemID) {
+        return stackable.computeIfAbsent(
+                itemID,
+                id -> {
+                    CompletableFuture<Boolean> future = new CompletableFuture<>();
+                    waiting.put(id, future);
+                    if (!flushScheduled) {
+                        // Queued behind the current render pass, so that the whole pass shares one batch.
+                        flushScheduled = true;
+                        SwingUtilities.invokeLater(this::Flush);
+                    }
+                    return future;
+                }
+        );
+    }
+
+    private void Flush() {
+        flushScheduled = false;
+        Map<Integer, CompletableFuture<Boolean>> batch = new HashMap<>(waiting);
+        waiting.clear();
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long scheduled = System.nanoTime();
+        clientThread.invokeLater(
+                () -> {
+                    Metrics.Timer(Metrics.CLIENT_THREAD_HOP).Since(scheduled);
+                    batch.forEach(
+                            (itemID, future) -> {
+                                ItemComposition composition = client.getItemDefinition(itemID);
+                                if (composition == null) {
+                                    // Forget the failure so that a later render can try again.
+                                    stackable.remove(itemID);
+                                    future.completeExceptionally(new IllegalArgumentException("Unknown item: " + itemID));
+                                }
+                                else {
+                                    future.complete(composition.isStackable());
+                                }
+                            }
+                    );
+                }
+        );
+    }
+}
@@ -1,7 +1,7 @@
 package com.loadoutsaver.ui;
 
+import com.loadoutsaver.implementations.ItemStackImpl;
 import com.loadoutsaver.interfaces.IEquipment;
-import com.loadoutsaver.interfaces.IItemStack;
 import net.runelite.api.EquipmentInventorySlot;
 
 import javax.swing.JComponent;
@@ -10,101 +10,87 @@ import javax.swing.JPanel;
 import javax.swing.border.EmptyBorder;
 import java.awt.Component;
 import java.awt.GridLayout;
-import java.util.Map;
 
 public class TotalEquipmentPanel extends JPanel {
 
-    private final EquipmentPanel headPanel = new EquipmentPanel("helmetdefault");
-    private final EquipmentPanel capePanel = new EquipmentPanel("capedefault");
-    private final EquipmentPanel amuletPanel = new EquipmentPanel("amuletdefault");
-    private final EquipmentPanel ammoPanel = new EquipmentPanel("ammodefault");
-    private final EquipmentPanel weaponPanel = new EquipmentPanel("weapondefault");
-    private final EquipmentPanel bodyPanel = new EquipmentPanel("bodydefault");
-    private final EquipmentPanel shieldPanel = new EquipmentPanel("shielddefault");
-    private final EquipmentPanel legsPanel = new EquipmentPanel("legsdefault");
-    private final EquipmentPanel glovesPanel = new EquipmentPanel("glovesdefault");
-    private final EquipmentPanel bootsPanel = new EquipmentPanel("bootsdefault");
-    private final EquipmentPanel ringPanel = new EquipmentPanel("ringdefault");
+    private static final int GRID_ROWS = 5;
+    private static final int GRID_COLUMNS = 3;
 
-    private JComponent[] GetEquipmentGrid() {
-        return new JComponent[] {
-                new JLabel(), headPanel, new JLabel(),
-                capePanel, amuletPanel, ammoPanel,
-                weaponPanel, bodyPanel, shieldPanel,
-                new JLabel(), legsPanel, new JLabel(),
-                glovesPanel, bootsPanel, ringPanel
-        };
-    }
+    // The equipment slots in the order they are drawn, with each slot's default background and its cell in the grid.
+    private static final EquipmentInventorySlot[] DISPLAY_ORDER = {
+            EquipmentInventorySlot.HEAD,
+            EquipmentInventorySlot.CAPE, EquipmentInventorySlot.AMULET, EquipmentInventorySlot.AMMO,
+            EquipmentInventorySlot.WEAPON, EquipmentInventorySlot.BODY, EquipmentInventorySlot.SHIELD,
+            EquipmentInventorySlot.LEGS,
+            EquipmentInventorySlot.GLOVES, EquipmentInventorySlot.BOOTS, EquipmentInventorySlot.RING
+    };
+    private static final String[] DEFAULT_BACKGROUNDS = {
+            "helmetdefault",
+            "capedefault", "amuletdefault", "ammodefault",
+            "weapondefault", "bodydefault", "shielddefault",
+            "legsdefault",
+            "glovesdefault", "bootsdefault", "ringdefault"
+    };
+    private static final int[] GRID_CELLS = {
+            1,
+            3, 4, 5,
+            6, 7, 8,
+            10,
+            12, 13, 14
+    };
+
+    // One tile per slot, in display order.
+    private final EquipmentPanel[] slotPanels = new EquipmentPanel[DISPLAY_ORDER.length];
+
+    private final LoadoutSaverPanel panel;
 
     private final JPanel equipmentPanel;
 
     /**
      * The total equipment panel draws all of the active equipment items based on the actual RuneScape
-     * equipment interface (slightly modified for ease of use with the grid layout)
+     * equipment interface (slightly modified for ease of use with the grid layout).
+     * The panel is built once and can be re-bound to different equipment as loadout rows are recycled.
      * @param panel The loadout saver panel, passing this is bad design but it works for now.
-     * @param equipment The equipment to render.
      */
-    public TotalEquipmentPanel(LoadoutSaverPanel panel, IEquipment equipment) {
+    public TotalEquipmentPanel(LoadoutSaverPanel panel) {
+        this.panel = panel;
         JPanel result = panel.PanelWithBackground("equipmentbackgroundgrid.png");
         // This is based on the properties of the equipment grid.
         result.setBorder(new EmptyBorder(4, 23, 8, 23));
-        result.setLayout(new GridLayout(5, 3));
+        result.setLayout(new GridLayout(GRID_ROWS, GRID_COLUMNS));
+
+        // Cells without an equipment slot are left blank.
+        JComponent[] grid = new JComponent[GRID_ROWS * GRID_COLUMNS];
+        for (int i = 0; i < DISPLAY_ORDER.length; i++) {
+            slotPanels[i] = new EquipmentPanel(DEFAULT_BACKGROUNDS[i]);
+            grid[GRID_CELLS[i]] = slotPanels[i];
+        }
+        for (Component c : grid) {
+            result.add(c == null ? new JLabel() : c);
+        }
 
-        Map<EquipmentInventorySlot, IItemStack> equipmentMap = equipment.GetEquipment();
-        for (EquipmentInventorySlot slot : equipmentMap.keySet()) {
-            IItemStack itemStack = equipmentMap.get(slot);
-            EquipmentPanel p;
-            switch (slot) {
-                case HEAD:
-                    p = headPanel;
-                    break;
-                case CAPE:
-                    p = capePanel;
-                    break;
-                case AMULET:
-                    p = amuletPanel;
-                    break;
-                case AMMO:
-                    p = ammoPanel;
-                    break;
-                case WEAPON:
-                    p = weaponPanel;
-                    break;
-                case BODY:
-                    p = bodyPanel;
-                    break;
-                case SHIELD:
-                    p = shieldPanel;
-                    break;
-                case LEGS:
-                    p = legsPanel;
-                    break;
-                case GLOVES:
-                    p = glovesPanel;
-                    break;
-                case BOOTS:
-                    p = bootsPanel;
-                    break;
-                case RING:
-                    p = ringPanel;
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unknown equipment: " + slot);
+        result.setAlignmentX(CENTER_ALIGNMENT);
+        equipmentPanel = result;
+    }
+
+    /**
+     * Draws the given equipment, replacing whatever was drawn before.
+     * @param equipment The equipment to render.
+     */
+    void Bind(IEquipment equipment) {
+        for (int i = 0; i < DISPLAY_ORDER.length; i++) {
+            int itemID = equipment.GetItemID(DISPLAY_ORDER[i]);
+            if (itemID < 0) {
+                slotPanels[i].ResetLabel(true);
+                continue;
             }
 
             // Since we have an item to draw on here, we shouldn't put the default background for this panel
             // and should instead use the plain gray background.
-            JLabel label = p.GetNewLabel(false);
+            JLabel label = slotPanels[i].ResetLabel(false);
 
-            panel.AddItemImageToLabel(label, itemStack);
+            panel.AddItemImageToLabel(label, new ItemStackImpl(itemID, equipment.GetQuantity(DISPLAY_ORDER[i])));
         }
-
-        for (Component c : GetEquipmentGrid()) {
-            result.add(c);
-        }
-
-        result.setAlignmentX(CENTER_ALIGNMENT);
-        equipmentPanel = result;
     }
 
     JPanel GetPanel() {
@@ -0,0 +1,182 @@
+package com.loadoutsaver.ui;
+
+import com.loadoutsaver.Metrics;
+import com.loadoutsaver.interfaces.ILoadout;
+
+import javax.swing.JPanel;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A list of loadouts that only creates rows for the loadouts currently inside the scroll viewport.
+ * Every row has the same height, so the list can reserve space for all loadouts without building them,
+ * and rows that scroll out of view are recycled for the loadouts scrolling in.
+ */
+class VirtualLoadoutList extends JPanel {
+
+    // Rows kept above and below the viewport so that short scrolls don't expose unbound space.
+    private static final int OVERSCAN_ROWS = 1;
+
+    private final LoadoutSaverPanel owner;
+    private final int width;
+    private final int padding;
+    private final int rowHeight;
+
+    private List<ILoadout> loadouts = new ArrayList<>();
+
+    // Rows currently showing a loadout, keyed by position in the list.
+    private final Map<Integer, LoadoutRowPanel> activeRows = new HashMap<>();
+    private final Deque<LoadoutRowPanel> freeRows = new ArrayDeque<>();
+
+    VirtualLoadoutList(LoadoutSaverPanel owner, int width, int padding) {
+        this.owner = owner;
+        this.width = width;
+        this.padding = padding;
+        this.setLayout(null);
+        this.setOpaque(false);
+
+        // All rows are laid out identically, so one row tells us the height of every row.
+        LoadoutRowPanel prototype = new LoadoutRowPanel(owner, padding);
+        this.rowHeight = prototype.getPreferredSize().height;
+        freeRows.push(prototype);
+        prototype.setVisible(false);
+        this.add(prototype);
+    }
+
+    /**
+     * Replaces the loadouts shown by the list. Only visible rows are re-bound.
+     * @param loadouts The loadouts to show, in order.
+     */
+    void SetLoadouts(List<ILoadout> loadouts) {
+        this.loadouts = new ArrayList<>(loadouts);
+        this.revalidate();
+        RefreshVisibleRows();
+    }
+
+    void Insert(int index, ILoadout loadout) {
+        loadouts.add(index, loadout);
+        ShiftRows(index, 1);
+        this.revalidate();
+        RefreshVisibleRows();
+    }
+
+    void Remove(int index) {
+        loadouts.remove(index);
+        ReleaseRow(index);
+        ShiftRows(index + 1, -1);
+        this.revalidate();
+        RefreshVisibleRows();
+    }
+
+    void Replace(int index, ILoadout loadout) {
+        loadouts.set(index, loadout);
+        RefreshVisibleRows();
+    }
+
+    void Move(int fromIndex, int toIndex) {
+        // A move is a removal followed by an insertion; rows in between keep their bindings.
+        ILoadout loadout = loadouts.get(fromIndex);
+        Remove(fromIndex);
+        Insert(toIndex, loadout);
+    }
+
+    /**
+     * Moves the rows at or after the given index by the given offset, so they keep their bindings
+     * rather than being re-bound to their neighbours' loadouts.
+     */
+    private void ShiftRows(int fromIndex, int offset) {
+        Map<Integer, LoadoutRowPanel> shifted = new HashMap<>();
+        Iterator<Map.Entry<Integer, LoadoutRowPanel>> it = activeRows.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, LoadoutRowPanel> entry = it.next();
+            if (entry.getKey() >= fromIndex) {
+                shifted.put(entry.getKey() + offset, entry.getValue());
+                it.remove();
+            }
+        }
+        activeRows.putAll(shifted);
+    }
+
+    private void ReleaseRow(int index) {
+        LoadoutRowPanel row = activeRows.remove(index);
+        if (row != null) {
+            row.setVisible(false);
+            freeRows.push(row);
+        }
+    }
+
+    /**
+     * Binds and positions rows for the loadouts inside the viewport, recycling the rest.
+     * Called whenever the list changes or the viewport scrolls.
+     */
+    void RefreshVisibleRows() {
+        long start = System.nanoTime();
+        Rectangle visible = this.getVisibleRect();
+        int first = 0;
+        int last = -1;
+        if (!loadouts.isEmpty() && visible.height > 0) {
+            first = Math.max(0, visible.y / rowHeight - OVERSCAN_ROWS);
+            last = Math.min(loadouts.size() - 1, (visible.y + visible.height) / rowHeight + OVERSCAN_ROWS);
+        }
+
+        Iterator<Map.Entry<Integer, LoadoutRowPanel>> it = activeRows.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, LoadoutRowPanel> entry = it.next();
+            if (entry.getKey() < first || entry.getKey() > last) {
+                entry.getValue().setVisible(false);
+                freeRows.push(entry.getValue());
+                it.remove();
+            }
+        }
+
+        for (int i = first; i <= last; i++) {
+            ILoadout loadout = loadouts.get(i);
+            LoadoutRowPanel row = activeRows.get(i);
+            if (row == null) {
+                row = freeRows.isEmpty() ? NewRow() : freeRows.pop();
+                activeRows.put(i, row);
+            }
+            if (row.GetLoadout() != loadout) {
+                row.Bind(loadout);
+            }
+            row.setBounds(0, i * rowHeight, width, rowHeight);
+            row.setVisible(true);
+        }
+
+        this.repaint();
+        Metrics.Timer(Metrics.PANEL_ROWS).Since(start);
+    }
+
+    private LoadoutRowPanel NewRow() {
+        LoadoutRowPanel row = new LoadoutRowPanel(owner, padding);
+        this.add(row);
+        return row;
+    }
+
+    @Override
+    public void doLayout() {
+        RefreshVisibleRows();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(width, loadouts.size() * rowHeight);
+    }
+
+    @Override
+    public Dimension getMaximumSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public Dimension getMinimumSize() {
+        return getPreferredSize();
+    }
+}
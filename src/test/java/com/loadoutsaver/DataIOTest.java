@@ -0,0 +1,123 @@
+package com.loadoutsaver;
+
+import com.loadoutsaver.implementations.LazyLoadoutImpl;
+import com.loadoutsaver.implementations.LoadoutImpl;
+import com.loadoutsaver.implementations.TestLoadouts;
+import com.loadoutsaver.interfaces.ILoadout;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class DataIOTest {
+
+    // More than DataIO.PARALLEL_THRESHOLD, so the parallel run really is split up.
+    private static final int RECORDS = 2000;
+
+    @Test
+    public void SequentialParseKeepsOrderAndReportsCorruptRecords() {
+        CheckParse(false);
+    }
+
+    @Test
+    public void ParallelParseKeepsOrderAndReportsCorruptRecords() {
+        CheckParse(true);
+    }
+
+    @Test
+    public void ParsedFingerprintsMatchDecodedLoadouts() {
+        ILoadout full = TestLoadouts.Full("Full; loadout", 1);
+        ILoadout empty = TestLoadouts.Empty("Empty");
+        List<String> records = Arrays.asList(
+                full.SerializeString(), Version1Record(full), empty.SerializeString(), Version1Record(empty)
+        );
+
+        ParseResult result = DataIO.ParseRecords(records, false);
+        assertEquals(0, result.GetFailures().size());
+        for (int i = 0; i < records.size(); i++) {
+            LazyLoadoutImpl parsed = (LazyLoadoutImpl) result.Get(i);
+            assertFalse("Parsing shouldn't decode the contents", parsed.IsDecoded());
+            ILoadout decoded = LoadoutImpl.Deserializer.DeserializeString(records.get(i));
+            assertEquals(records.get(i), decoded.Fingerprint(), parsed.Fingerprint());
+        }
+    }
+
+    private static void CheckParse(boolean parallel) {
+        List<String> records = new ArrayList<>();
+        List<Integer> corrupt = new ArrayList<>();
+        for (int i = 0; i < RECORDS; i++) {
+            String record = TestLoadouts.Full("Loadout " + i, i % 50).SerializeString();
+            if (i % 97 == 3) {
+                record = Corrupted(record, corrupt.size());
+                corrupt.add(i);
+            }
+            records.add(record);
+        }
+
+        ParseResult result = DataIO.ParseRecords(records, parallel);
+
+        assertEquals(RECORDS, result.Size());
+        List<Integer> failed = result.GetFailures().stream()
+                .map(ParseResult.Failure::GetIndex)
+                .collect(Collectors.toList());
+        assertEquals(corrupt, failed);
+        for (ParseResult.Failure failure : result.GetFailures()) {
+            assertEquals(records.get(failure.GetIndex()), failure.GetRecord());
+        }
+        for (int i = 0; i < RECORDS; i++) {
+            if (corrupt.contains(i)) {
+                assertNull(result.Get(i));
+            }
+            else {
+                assertEquals(records.get(i), result.Get(i).SerializeString());
+            }
+        }
+        assertEquals(RECORDS - corrupt.size(), result.GetLoadouts().size());
+    }
+
+    /**
+     * Damages a version 2 record in one of several ways, most of which leave the header intact.
+     */
+    private static String Corrupted(String record, int kind) {
+        int contentsStart = record.lastIndexOf(';') + 1;
+        String name = record.substring(0, contentsStart);
+        byte[] contents = Base64.getDecoder().decode(record.substring(contentsStart, record.lastIndexOf(':')));
+        Base64.Encoder encoder = Base64.getEncoder();
+        switch (kind % 5) {
+            case 0:
+                // Truncated contents.
+                return name + encoder.encodeToString(Arrays.copyOf(contents, contents.length / 2)) + ":2";
+            case 1:
+                // Trailing bytes.
+                return name + encoder.encodeToString(Arrays.copyOf(contents, contents.length + 3)) + ":2";
+            case 2:
+                // Not base64.
+                return name + "!!not base64!!:2";
+            case 3:
+                // A version 1 record whose inventory isn't one.
+                String garbage = encoder.encodeToString("garbage".getBytes(StandardCharsets.UTF_8));
+                return name + garbage + ":" + garbage + ":1";
+            default:
+                // A broken header.
+                return record.replace(";", "");
+        }
+    }
+
+    /**
+     * {name};{b64 inventory}:{b64 equipment}:1, as written before the compact format.
+     */
+    private static String Version1Record(ILoadout loadout) {
+        byte[] inventory = loadout.GetInventory().SerializeString().getBytes(StandardCharsets.UTF_8);
+        byte[] equipment = loadout.GetEquipment().SerializeString().getBytes(StandardCharsets.UTF_8);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return loadout.GetName() + ";" + encoder.encodeToString(inventory) + ":" + encoder.encodeToString(equipment) + ":1";
+    }
+}
@@ -0,0 +1,178 @@
+package com.loadoutsaver;
+
+import com.loadoutsaver.implementations.TestLoadouts;
+import com.loadoutsaver.interfaces.ILoadout;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FileLoadoutStoreTest {
+
+    // The log's layout, see FileLoadoutStore: the file header, then records of type, body length, body and checksum.
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int BODY_OFFSET = 1 + Integer.BYTES;
+    private static final int RECORD_OVERHEAD = BODY_OFFSET + Integer.BYTES;
+    private static final byte PUT = 1;
+    private static final byte ORDER = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path log;
+
+    @Before
+    public void SetUp() {
+        log = folder.getRoot().toPath().resolve("loadouts.log");
+    }
+
+    @Test
+    public void ReopensWhatWasSaved() {
+        List<ILoadout> saved = SaveOneAtATime(5);
+
+        assertEquals(Serialized(saved), Serialized(Reopen()));
+    }
+
+    @Test
+    public void ReopensAfterTornTail() throws IOException {
+        List<ILoadout> saved = SaveOneAtATime(3);
+        // A PUT that claims a 100 byte body, cut off after two bytes of it.
+        Files.write(log, new byte[] {1, 0, 0, 0, 100, 0, 0}, StandardOpenOption.APPEND);
+
+        FileLoadoutStore store = new FileLoadoutStore(log, null);
+        List<ILoadout> loaded = new ArrayList<>(store.Load());
+        assertEquals(Serialized(saved), Serialized(loaded));
+        assertEquals(0, store.GetUnreadableCount());
+
+        loaded.add(TestLoadouts.Full("After the tear", 9));
+        store.Save(loaded);
+        assertEquals(Serialized(loaded), Serialized(Reopen()));
+        assertEquals("A torn append is not damage, so nothing is backed up", 0, Backups().size());
+    }
+
+    @Test
+    public void CorruptLengthInTheMiddleKeepsLaterRecords() throws IOException {
+        List<ILoadout> saved = SaveOneAtATime(5);
+        List<Integer> orders = RecordPositions(ORDER);
+        // Claim far more bytes than the file has, as a torn append would, but with intact records after it.
+        Corrupt(orders.get(orders.size() / 2), bytes -> bytes.putInt(1, Integer.MAX_VALUE / 2));
+
+        FileLoadoutStore store = new FileLoadoutStore(log, null);
+        List<ILoadout> loaded = new ArrayList<>(store.Load());
+        assertEquals(Serialized(saved), Serialized(loaded));
+        assertEquals(1, Backups().size());
+
+        loaded.add(TestLoadouts.Full("After the damage", 9));
+        store.Save(loaded);
+        assertEquals(Serialized(loaded), Serialized(Reopen()));
+    }
+
+    @Test
+    public void CorruptRecordInTheMiddleIsSkippedAndSavingKeepsTheRest() throws IOException {
+        List<ILoadout> saved = SaveOneAtATime(5);
+        // Flip a byte in the body of the third loadout's record.
+        int put = RecordPositions(PUT).get(2);
+        int flipped = BODY_OFFSET + Long.BYTES + 2;
+        Corrupt(put, bytes -> bytes.put(flipped, (byte) (bytes.get(flipped) ^ 0x55)));
+
+        FileLoadoutStore store = new FileLoadoutStore(log, null);
+        List<ILoadout> loaded = new ArrayList<>(store.Load());
+        List<ILoadout> expected = new ArrayList<>(saved);
+        expected.remove(2);
+        assertEquals(Serialized(expected), Serialized(loaded));
+        assertEquals(1, store.GetUnreadableCount());
+        assertEquals(1, Backups().size());
+
+        loaded.add(TestLoadouts.Full("After the damage", 9));
+        store.Save(loaded);
+        assertEquals(Serialized(loaded), Serialized(Reopen()));
+    }
+
+    @Test
+    public void CompactionKeepsTheLiveLoadouts() throws IOException {
+        FileLoadoutStore store = new FileLoadoutStore(log, null);
+        store.Load();
+        List<ILoadout> loadouts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            loadouts.add(TestLoadouts.Full("Loadout " + i, i));
+        }
+        store.Save(loadouts);
+
+        long appended = 0;
+        for (int i = 0; i < 2000; i++) {
+            long before = Files.size(log);
+            loadouts.set(i % loadouts.size(), loadouts.get(i % loadouts.size()).Renamed("Renamed " + i));
+            store.Save(loadouts);
+            appended += Math.max(0, Files.size(log) - before);
+        }
+
+        assertTrue("The log should have been compacted", Files.size(log) < appended / 2);
+        assertEquals(Serialized(loadouts), Serialized(Reopen()));
+    }
+
+    private List<ILoadout> SaveOneAtATime(int count) {
+        FileLoadoutStore store = new FileLoadoutStore(log, null);
+        store.Load();
+        List<ILoadout> loadouts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            loadouts.add(TestLoadouts.Full("Loadout " + i, i));
+            store.Save(loadouts);
+        }
+        return loadouts;
+    }
+
+    private List<ILoadout> Reopen() {
+        return new FileLoadoutStore(log, null).Load();
+    }
+
+    /**
+     * @return The position of each record of the given type in the log, in order.
+     */
+    private List<Integer> RecordPositions(byte type) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(log));
+        List<Integer> positions = new ArrayList<>();
+        int position = HEADER_BYTES;
+        while (position < bytes.limit()) {
+            if (bytes.get(position) == type) {
+                positions.add(position);
+            }
+            position += RECORD_OVERHEAD + bytes.getInt(position + 1);
+        }
+        return positions;
+    }
+
+    private interface Edit {
+        void Apply(ByteBuffer record);
+    }
+
+    private void Corrupt(int position, Edit edit) throws IOException {
+        byte[] bytes = Files.readAllBytes(log);
+        ByteBuffer record = ByteBuffer.wrap(bytes);
+        record.position(position);
+        edit.Apply(record.slice());
+        Files.write(log, bytes);
+    }
+
+    private List<Path> Backups() throws IOException {
+        try (Stream<Path> files = Files.list(log.getParent())) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".corrupt")).collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> Serialized(List<ILoadout> loadouts) {
+        return loadouts.stream().map(ILoadout::SerializeString).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,269 @@
+package com.loadoutsaver;
+
+import com.loadoutsaver.implementations.TestLoadouts;
+import com.loadoutsaver.interfaces.IEquipment;
+import com.loadoutsaver.interfaces.IInventory;
+import com.loadoutsaver.interfaces.ILoadout;
+import com.loadoutsaver.interfaces.ILoadoutStore;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class LoadoutManagerTest {
+
+    /**
+     * Keeps the library in memory and counts saves.
+     */
+    private static class MemoryStore implements ILoadoutStore {
+        private List<ILoadout> saved;
+        private int saves = 0;
+
+        private MemoryStore(List<ILoadout> saved) {
+            this.saved = new ArrayList<>(saved);
+        }
+
+        @Override
+        public synchronized List<ILoadout> Load() {
+            return new ArrayList<>(saved);
+        }
+
+        @Override
+        public synchronized void Save(List<ILoadout> loadouts) {
+            saved = new ArrayList<>(loadouts);
+            saves++;
+        }
+    }
+
+    /**
+     * Wraps a loadout but reports the same fingerprint as every other wrapped loadout.
+     */
+    private static class Colliding implements ILoadout {
+        private final ILoadout loadout;
+
+        private Colliding(ILoadout loadout) {
+            this.loadout = loadout;
+        }
+
+        @Override
+        public String GetName() {
+            return loadout.GetName();
+        }
+
+        @Override
+        public IInventory GetInventory() {
+            return loadout.GetInventory();
+        }
+
+        @Override
+        public IEquipment GetEquipment() {
+            return loadout.GetEquipment();
+        }
+
+        @Override
+        public ILoadout Renamed(String name) {
+            return new Colliding(loadout.Renamed(name));
+        }
+
+        @Override
+        public long Fingerprint() {
+            return 42;
+        }
+
+        @Override
+        public String SerializeString() {
+            return loadout.SerializeString();
+        }
+
+        @Override
+        public ILoadout DeserializeString(String serialized) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Colliding && loadout.equals(((Colliding) other).loadout);
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    private static final LoadoutSaverConfig AUTOSAVE = new LoadoutSaverConfig() {};
+
+    private final List<LoadoutManager> managers = new ArrayList<>();
+
+    @After
+    public void TearDown() {
+        managers.forEach(LoadoutManager::flush);
+    }
+
+    @Test
+    public void RolledBackBatchRestoresEveryIndex() {
+        List<ILoadout> library = Library(3);
+        LoadoutManager manager = Manager(new MemoryStore(library), Runnable::run);
+        ILoadout removed = library.get(0);
+        ILoadout renamed = library.get(1);
+        ILoadout added = TestLoadouts.Full("Added", 10);
+        long[] ids = Ids(manager, library);
+
+        assertThrows(IllegalStateException.class, () -> manager.Batch(tx -> {
+            tx.Remove(removed);
+            tx.RenameById(ids[1], "Renamed");
+            assertTrue(tx.Add(added));
+            throw new IllegalStateException("Abandon the batch");
+        }));
+
+        assertEquals(library, manager.Snapshot());
+        assertTrue(Arrays.equals(ids, Ids(manager, library)));
+        assertEquals(Collections.singletonList(renamed), manager.GetByName(renamed.GetName()));
+        assertTrue(manager.GetByName("Renamed").isEmpty());
+        assertTrue(manager.IsDuplicate(removed));
+        assertFalse(manager.IsDuplicate(added));
+        assertEquals(Collections.singletonList(removed), manager.FindWithAnyOf(FirstItem(removed)));
+        assertTrue(manager.FindWithAnyOf(FirstItem(added)).isEmpty());
+
+        // The rolled back addition's id is handed out again.
+        assertTrue(manager.AddLoadout(added));
+        assertEquals(ids[2] + 1, manager.GetId(added));
+    }
+
+    @Test
+    public void RemovedLoadoutCanBeAddedBackInTheSameBatch() {
+        List<ILoadout> library = Library(3);
+        LoadoutManager manager = Manager(new MemoryStore(library), Runnable::run);
+        ILoadout moved = library.get(0);
+        ILoadout copy = moved.Renamed(moved.GetName());
+
+        manager.Batch(tx -> {
+            assertFalse("An equal copy is a duplicate", tx.Add(copy));
+            assertTrue(tx.Remove(moved));
+            assertTrue("Once removed, it can be added again", tx.Add(moved));
+        });
+
+        assertEquals(Arrays.asList(library.get(1), library.get(2), moved), manager.Snapshot());
+        assertTrue(manager.IsDuplicate(copy));
+        assertTrue(manager.GetId(moved) >= 0);
+        assertEquals(Collections.singletonList(moved), manager.FindWithAnyOf(FirstItem(moved)));
+        assertFalse(manager.AddLoadout(copy));
+    }
+
+    @Test
+    public void BatchSendsOneEventAndOneSaveRequest() {
+        MemoryStore store = new MemoryStore(Library(3));
+        LoadoutManager manager = Manager(store, Runnable::run);
+        List<LoadoutChangeEvent> events = new ArrayList<>();
+        manager.SubscribeChanges(events::add);
+        // Status updates also come from the save thread.
+        List<Boolean> pending = new CopyOnWriteArrayList<>();
+        manager.SubscribeSaveStatus(status -> pending.add(status.IsPending()));
+        pending.clear();
+
+        manager.Batch(tx -> {
+            for (int i = 0; i < 5; i++) {
+                tx.Add(TestLoadouts.Full("Batched " + i, 10 + i));
+            }
+            tx.Remove(tx.GetLoadouts().get(0));
+            tx.Move(tx.GetLoadouts().get(0), 2);
+        });
+
+        assertEquals(1, events.size());
+        assertEquals(LoadoutChangeEvent.Type.BATCH, events.get(0).GetType());
+        assertEquals(manager.Snapshot(), events.get(0).GetLoadouts());
+        assertEquals("One save should have been requested", Collections.singletonList(true), pending);
+
+        manager.flush();
+        assertEquals(1, store.saves);
+        assertEquals(manager.Snapshot(), store.Load());
+    }
+
+    @Test
+    public void ChangesQueuedWhileLoadingAreReplayed() {
+        List<ILoadout> library = Library(3);
+        List<Runnable> loads = new ArrayList<>();
+        Executor loader = loads::add;
+        LoadoutManager manager = Manager(new MemoryStore(library), loader);
+        List<LoadoutChangeEvent> events = new ArrayList<>();
+        manager.SubscribeChanges(events::add);
+        ILoadout batched = TestLoadouts.Full("Batched", 10);
+        ILoadout added = TestLoadouts.Full("Added", 11);
+
+        assertFalse("The batch should be queued", manager.Batch(tx -> {
+            tx.Add(batched);
+            tx.Remove(tx.GetLoadouts().get(0));
+        }));
+        // A queued change that fails when replayed doesn't stop the ones after it.
+        manager.Batch(tx -> {
+            throw new IllegalStateException("Fails on replay");
+        });
+        assertTrue(manager.AddLoadout(added));
+        assertTrue(manager.Snapshot().isEmpty());
+        assertTrue(events.isEmpty());
+
+        assertEquals(1, loads.size());
+        loads.get(0).run();
+
+        assertTrue(manager.IsLoaded());
+        assertEquals(Arrays.asList(library.get(1), library.get(2), batched, added), manager.Snapshot());
+        List<LoadoutChangeEvent.Type> types = new ArrayList<>();
+        events.forEach(event -> types.add(event.GetType()));
+        assertEquals(
+                Arrays.asList(LoadoutChangeEvent.Type.LOADED, LoadoutChangeEvent.Type.BATCH, LoadoutChangeEvent.Type.ADDED),
+                types
+        );
+    }
+
+    @Test
+    public void FingerprintCollisionIsNotADuplicate() {
+        LoadoutManager manager = Manager(new MemoryStore(Collections.emptyList()), Runnable::run);
+        ILoadout first = new Colliding(TestLoadouts.Full("First", 1));
+        ILoadout second = new Colliding(TestLoadouts.Full("Second", 2));
+        assertEquals(first.Fingerprint(), second.Fingerprint());
+        assertNotEquals(first, second);
+
+        assertTrue(manager.AddLoadout(first));
+        assertTrue(manager.AddLoadout(second));
+        assertFalse(manager.AddLoadout(new Colliding(TestLoadouts.Full("Second", 2))));
+
+        manager.RemoveLoadout(first);
+        assertFalse(manager.IsDuplicate(first));
+        assertTrue(manager.IsDuplicate(second));
+        assertSame(second, manager.Snapshot().get(0));
+    }
+
+    private LoadoutManager Manager(ILoadoutStore store, Executor loader) {
+        LoadoutManager manager = new LoadoutManager(AUTOSAVE, store, loader);
+        managers.add(manager);
+        return manager;
+    }
+
+    private static List<ILoadout> Library(int size) {
+        List<ILoadout> library = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            library.add(TestLoadouts.Full("Loadout " + i, i));
+        }
+        return library;
+    }
+
+    private static long[] Ids(LoadoutManager manager, List<ILoadout> loadouts) {
+        return loadouts.stream().mapToLong(manager::GetId).toArray();
+    }
+
+    private static int FirstItem(ILoadout loadout) {
+        return loadout.GetInventory().GetItemID(0);
+    }
+}
@@ -0,0 +1,166 @@
+package com.loadoutsaver.implementations;
+
+import com.loadoutsaver.interfaces.IEquipment;
+import com.loadoutsaver.interfaces.IInventory;
+import com.loadoutsaver.interfaces.ILoadout;
+import net.runelite.api.EquipmentInventorySlot;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class CompactCodecTest {
+
+    @Test
+    public void EmptyLoadoutRoundTrips() {
+        ILoadout empty = TestLoadouts.Empty("Empty");
+        byte[] encoded = CompactCodec.Encode(empty.GetInventory(), empty.GetEquipment());
+
+        // Just the two empty slot bitmaps.
+        assertEquals(2, encoded.length);
+        AssertContentsEqual(empty, Decode(encoded));
+    }
+
+    @Test
+    public void FullLoadoutRoundTrips() {
+        ILoadout full = TestLoadouts.Full("Full", 1);
+        AssertContentsEqual(full, Decode(CompactCodec.Encode(full.GetInventory(), full.GetEquipment())));
+    }
+
+    @Test
+    public void StackableQuantitiesRoundTrip() {
+        int[] inventoryIDs = new int[InventoryImpl.SIZE];
+        int[] inventoryQuantities = new int[InventoryImpl.SIZE];
+        Arrays.fill(inventoryIDs, -1);
+        // Coins at the largest stack the game allows, and stacks on either side of each varint byte boundary.
+        int[] stacks = {Integer.MAX_VALUE, 127, 128, 16383, 16384, 2097151, 2097152};
+        for (int i = 0; i < stacks.length; i++) {
+            inventoryIDs[i * 4] = 995 + i;
+            inventoryQuantities[i * 4] = stacks[i];
+        }
+        int[] equipmentIDs = EquipmentImpl.EmptySlots();
+        int[] equipmentQuantities = new int[EquipmentImpl.SLOT_COUNT];
+        equipmentIDs[EquipmentInventorySlot.AMMO.getSlotIdx()] = 11212;
+        equipmentQuantities[EquipmentInventorySlot.AMMO.getSlotIdx()] = 8000;
+        ILoadout stacked = TestLoadouts.Loadout(
+                "Stacks", inventoryIDs, inventoryQuantities, equipmentIDs, equipmentQuantities
+        );
+
+        ILoadout decoded = Decode(CompactCodec.Encode(stacked.GetInventory(), stacked.GetEquipment()));
+        AssertContentsEqual(stacked, decoded);
+        assertEquals(Integer.MAX_VALUE, decoded.GetInventory().GetQuantity(0));
+        assertEquals(8000, decoded.GetEquipment().GetQuantity(EquipmentInventorySlot.AMMO));
+    }
+
+    @Test
+    public void RecordsAreWrittenAsVersion2AndReadBack() {
+        ILoadout full = TestLoadouts.Full("Name; with: separators", 2);
+        String record = full.SerializeString();
+
+        assertTrue(record.endsWith(":2"));
+        assertEquals(full, LoadoutImpl.Deserializer.DeserializeString(record));
+        assertEquals(full, LazyLoadoutImpl.Deserializer.DeserializeString(record));
+    }
+
+    @Test
+    public void Version1RecordsAreStillRead() {
+        ILoadout full = TestLoadouts.Full("Old; loadout", 3);
+        String record = Version1Record(full);
+
+        ILoadout eager = LoadoutImpl.Deserializer.DeserializeString(record);
+        ILoadout lazy = LazyLoadoutImpl.Deserializer.DeserializeString(record);
+        assertEquals(full, eager);
+        assertEquals(full, lazy);
+        // Untouched lazy loadouts keep their original record; anything else is rewritten in the current version.
+        assertEquals(record, lazy.SerializeString());
+        assertEquals(full.SerializeString(), eager.SerializeString());
+    }
+
+    @Test
+    public void Version1EmptyLoadoutIsStillRead() {
+        ILoadout empty = TestLoadouts.Empty("Nothing");
+        assertEquals(empty, LoadoutImpl.Deserializer.DeserializeString(Version1Record(empty)));
+    }
+
+    @Test
+    public void LazyFingerprintsDontDecode() {
+        ILoadout full = TestLoadouts.Full("Lazy", 6);
+        for (String record : new String[] {full.SerializeString(), Version1Record(full)}) {
+            LazyLoadoutImpl lazy = (LazyLoadoutImpl) LazyLoadoutImpl.Deserializer.DeserializeString(record);
+            assertEquals(full.Fingerprint(), lazy.Fingerprint());
+            assertFalse(lazy.IsDecoded());
+        }
+    }
+
+    @Test
+    public void CorruptedLazyLoadoutsFingerprintAsEmpty() {
+        ILoadout full = TestLoadouts.Full("Broken", 7);
+        byte[] encoded = CompactCodec.Encode(full.GetInventory(), full.GetEquipment());
+        String record = "Broken;" + Base64.getEncoder().encodeToString(Arrays.copyOf(encoded, 5)) + ":2";
+        LazyLoadoutImpl lazy = (LazyLoadoutImpl) LazyLoadoutImpl.Deserializer.DeserializeString(record);
+
+        assertThrows(IllegalArgumentException.class, lazy::CheckedFingerprint);
+        assertEquals(TestLoadouts.Empty("Broken").Fingerprint(), lazy.Fingerprint());
+        // The record is kept as it was, so saving doesn't lose it.
+        assertEquals(record, lazy.SerializeString());
+    }
+
+    @Test
+    public void TruncatedContentsAreRejected() {
+        ILoadout full = TestLoadouts.Full("Full", 4);
+        byte[] encoded = CompactCodec.Encode(full.GetInventory(), full.GetEquipment());
+        for (int length = 0; length < encoded.length; length++) {
+            byte[] truncated = Arrays.copyOf(encoded, length);
+            assertThrows(IllegalArgumentException.class, () -> Decode(truncated));
+        }
+    }
+
+    @Test
+    public void TrailingBytesAreRejected() {
+        ILoadout full = TestLoadouts.Full("Full", 5);
+        byte[] encoded = CompactCodec.Encode(full.GetInventory(), full.GetEquipment());
+        String contents = Base64.getEncoder().encodeToString(Arrays.copyOf(encoded, encoded.length + 1));
+        String record = "Full;" + contents + ":2";
+
+        assertThrows(IllegalArgumentException.class, () -> LoadoutImpl.Deserializer.DeserializeString(record));
+    }
+
+    @Test
+    public void UnknownInventorySlotsAreRejected() {
+        // A bitmap with only bit 28 set, one past the last inventory slot.
+        byte[] bitmap = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01};
+        assertThrows(IllegalArgumentException.class, () -> CompactCodec.DecodeInventory(ByteBuffer.wrap(bitmap)));
+    }
+
+    private static ILoadout Decode(byte[] encoded) {
+        ByteBuffer in = ByteBuffer.wrap(encoded);
+        IInventory inventory = CompactCodec.DecodeInventory(in);
+        IEquipment equipment = CompactCodec.DecodeEquipment(in);
+        if (in.hasRemaining()) {
+            throw new IllegalArgumentException(in.remaining() + " trailing bytes.");
+        }
+        return new LoadoutImpl("Decoded", inventory, equipment);
+    }
+
+    private static void AssertContentsEqual(ILoadout expected, ILoadout actual) {
+        assertEquals(expected.GetInventory(), actual.GetInventory());
+        assertEquals(expected.GetEquipment(), actual.GetEquipment());
+    }
+
+    /**
+     * {name};{b64 inventory}:{b64 equipment}:1, as written before the compact format.
+     */
+    private static String Version1Record(ILoadout loadout) {
+        byte[] inventory = loadout.GetInventory().SerializeString().getBytes(StandardCharsets.UTF_8);
+        byte[] equipment = loadout.GetEquipment().SerializeString().getBytes(StandardCharsets.UTF_8);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return loadout.GetName() + ";" + encoder.encodeToString(inventory) + ":" + encoder.encodeToString(equipment) + ":1";
+    }
+}
@@ -0,0 +1,72 @@
+package com.loadoutsaver.implementations;
+
+import com.loadoutsaver.interfaces.ILoadout;
+import org.junit.Test;
+
+import java.util.Base64;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ShareCodesTest {
+
+    @Test
+    public void FullLoadoutRoundTrips() {
+        ILoadout full = TestLoadouts.Full("Shared: full; loadout", 1);
+        String code = ShareCodes.Encode(full);
+
+        assertTrue(code.startsWith(ShareCodes.PREFIX));
+        assertEquals(full, ShareCodes.Decode(code));
+    }
+
+    @Test
+    public void EmptyLoadoutRoundTrips() {
+        ILoadout empty = TestLoadouts.Empty("Nothing");
+        assertEquals(empty, ShareCodes.Decode(ShareCodes.Encode(empty)));
+    }
+
+    @Test
+    public void SurroundingWhitespaceIsIgnored() {
+        ILoadout full = TestLoadouts.Full("Pasted", 2);
+        assertEquals(full, ShareCodes.Decode("  " + ShareCodes.Encode(full) + "\n"));
+    }
+
+    @Test
+    public void LegacyCodesAreStillAccepted() {
+        ILoadout full = TestLoadouts.Full("Legacy", 3);
+        assertEquals(full, ShareCodes.Decode(full.SerializeString()));
+    }
+
+    @Test
+    public void WrongPrefixIsRejected() {
+        String code = ShareCodes.Encode(TestLoadouts.Full("Prefixed", 4));
+        String body = code.substring(ShareCodes.PREFIX.length());
+
+        assertThrows(IllegalArgumentException.class, () -> ShareCodes.Decode("LS2." + body));
+        assertThrows(IllegalArgumentException.class, () -> ShareCodes.Decode(body));
+    }
+
+    @Test
+    public void ChecksumMismatchIsRejected() {
+        String code = ShareCodes.Encode(TestLoadouts.Full("Checked", 5));
+        byte[] bytes = Base64.getUrlDecoder().decode(code.substring(ShareCodes.PREFIX.length()));
+        // The checksum is the last four bytes.
+        bytes[bytes.length - 1] ^= 0x01;
+        String tampered = ShareCodes.PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        IllegalArgumentException thrown = assertThrows(
+                IllegalArgumentException.class, () -> ShareCodes.Decode(tampered)
+        );
+        assertTrue(thrown.getMessage(), thrown.getMessage().contains("checksum"));
+    }
+
+    @Test
+    public void TruncatedCodesAreRejected() {
+        String code = ShareCodes.Encode(TestLoadouts.Full("Truncated", 6));
+        for (int length = ShareCodes.PREFIX.length(); length < code.length(); length++) {
+            String truncated = code.substring(0, length);
+            assertThrows(truncated, IllegalArgumentException.class, () -> ShareCodes.Decode(truncated));
+        }
+    }
+}
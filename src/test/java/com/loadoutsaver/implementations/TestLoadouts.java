@@ -0,0 +1,69 @@
+package com.loadoutsaver.implementations;
+
+import com.loadoutsaver.interfaces.ILoadout;
+import net.runelite.api.EquipmentInventorySlot;
+
+import java.util.Arrays;
+
+/**
+ * Builds loadouts for tests, without a client.
+ */
+public final class TestLoadouts {
+
+    private TestLoadouts() {}
+
+    /**
+     * @param name The loadout's name.
+     * @param seed Varies the items, so loadouts built with different seeds differ.
+     * @return A loadout with every inventory and equipment slot filled, including stacks in the first inventory
+     *         slot and the ammo slot.
+     */
+    public static ILoadout Full(String name, int seed) {
+        int[] inventoryIDs = new int[InventoryImpl.SIZE];
+        int[] inventoryQuantities = new int[InventoryImpl.SIZE];
+        for (int i = 0; i < InventoryImpl.SIZE; i++) {
+            inventoryIDs[i] = 1000 + seed * 100 + i;
+            inventoryQuantities[i] = 1;
+        }
+        inventoryQuantities[0] = 25000;
+
+        int[] equipmentIDs = EquipmentImpl.EmptySlots();
+        int[] equipmentQuantities = new int[EquipmentImpl.SLOT_COUNT];
+        for (EquipmentInventorySlot slot : EquipmentImpl.SLOTS) {
+            equipmentIDs[slot.getSlotIdx()] = 20000 + seed * 100 + slot.getSlotIdx();
+            equipmentQuantities[slot.getSlotIdx()] = 1;
+        }
+        equipmentQuantities[EquipmentInventorySlot.AMMO.getSlotIdx()] = 500;
+
+        return Loadout(name, inventoryIDs, inventoryQuantities, equipmentIDs, equipmentQuantities);
+    }
+
+    /**
+     * @return A loadout with nothing in the inventory or equipment.
+     */
+    public static ILoadout Empty(String name) {
+        int[] inventoryIDs = new int[InventoryImpl.SIZE];
+        Arrays.fill(inventoryIDs, -1);
+        return Loadout(
+                name,
+                inventoryIDs,
+                new int[InventoryImpl.SIZE],
+                EquipmentImpl.EmptySlots(),
+                new int[EquipmentImpl.SLOT_COUNT]
+        );
+    }
+
+    /**
+     * @param inventoryIDs An id per inventory slot, -1 where empty.
+     * @param equipmentIDs An id per equipment slot index, -1 where empty.
+     */
+    public static ILoadout Loadout(
+            String name, int[] inventoryIDs, int[] inventoryQuantities, int[] equipmentIDs, int[] equipmentQuantities
+    ) {
+        return new LoadoutImpl(
+                name,
+                new InventoryImpl(inventoryIDs.clone(), inventoryQuantities.clone()),
+                new EquipmentImpl(equipmentIDs.clone(), equipmentQuantities.clone())
+        );
+    }
+}